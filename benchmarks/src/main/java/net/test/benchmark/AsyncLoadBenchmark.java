@@ -0,0 +1,101 @@
+package net.test.benchmark;
+
+import net.test.entity.Person;
+import net.test.query.AsyncQueryExecutor;
+import net.test.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static net.test.predicate.PersonPredicates.nameEquals;
+
+/**
+ * {@code callers} concurrent lookups by name through {@link PersonRepository#findOneAsync}, served by
+ * {@code maxConcurrency} queries at a time, compared with the same lookups made one by one.
+ * <p>
+ * One operation is the whole batch, divide {@code callers} by the score for queries per millisecond. Virtual threads
+ * need JDK 21, which also needs {@code -jvmArgsAppend "--add-opens=java.base/java.lang=ALL-UNNAMED
+ * --add-opens=java.base/java.lang.invoke=ALL-UNNAMED"} for Hibernate and Spring Data.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class AsyncLoadBenchmark {
+
+    @Param({"10000"})
+    public int persons;
+
+    @Param({"100", "1000"})
+    public int callers;
+
+    @Param({"1", "8"})
+    public int maxConcurrency;
+
+    @Param({"true", "false"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start("app.async-query.max-concurrency=" + maxConcurrency, "app.async-query" +
+                ".virtual-threads=" + virtualThreads);
+        Datasets.seed(context, persons, 0);
+        personRepository = context.getBean(PersonRepository.class);
+
+        if (virtualThreads && !context.getBean(AsyncQueryExecutor.class).isVirtualThreads()) {
+            throw new IllegalStateException("Virtual threads are not supported by this JDK");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object async() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[callers];
+        for (int i = 0; i < callers; i++) {
+            futures[i] = personRepository.findOneAsync(nameEquals(nextName()));
+        }
+        return CompletableFuture.allOf(futures).join();
+    }
+
+    @Benchmark
+    public Person blocking() {
+        Person last = null;
+        for (int i = 0; i < callers; i++) {
+            last = personRepository.findOne(nameEquals(nextName()));
+        }
+        return last;
+    }
+
+    private String nextName() {
+        // visit the whole table, not just the first rows
+        next = (next + 7919) % persons;
+        return Datasets.NAME + next;
+    }
+}
@@ -0,0 +1,106 @@
+package net.test.benchmark;
+
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import net.test.service.BulkInsertResult;
+import net.test.service.BulkInsertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code personRepository.save} loop compared with {@link BulkInsertService}.
+ * <p>
+ * Every invocation inserts {@code persons} persons with {@code addresses} addresses each into empty tables, rows per
+ * second are {@code persons * (1 + addresses)} divided by the reported time.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    @Param({"10000"})
+    public int persons;
+
+    @Param({"2"})
+    public int addresses;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+    private AddressRepository addressRepository;
+    private BulkInsertService bulkInsertService;
+
+    private List<Person> graphs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start();
+        personRepository = context.getBean(PersonRepository.class);
+        addressRepository = context.getBean(AddressRepository.class);
+        bulkInsertService = context.getBean(BulkInsertService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareInvocation() {
+        Datasets.seed(context, 0, 0);
+
+        graphs = new ArrayList<>(persons);
+        for (int i = 0; i < persons; i++) {
+            Person person = new Person();
+            person.setName(Datasets.NAME + i);
+            person.setSurname(Datasets.SURNAME + i);
+
+            for (int j = 0; j < addresses; j++) {
+                Address address = new Address();
+                address.setStreet(Datasets.STREET + i + "/" + j);
+                person.getAddresses().add(address);
+            }
+
+            graphs.add(person);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long saveLoop() {
+        for (Person person : graphs) {
+            personRepository.save(person);
+            for (Address address : person.getAddresses()) {
+                address.setPerson(person);
+                addressRepository.save(address);
+            }
+        }
+        return graphs.size();
+    }
+
+    @Benchmark
+    public BulkInsertResult bulkInsert() {
+        return bulkInsertService.insert(graphs);
+    }
+}
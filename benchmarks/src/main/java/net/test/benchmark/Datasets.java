@@ -0,0 +1,108 @@
+package net.test.benchmark;
+
+import net.test.QuerydslIntroApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Application context and seeded H2 data shared by the benchmarks.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+final class Datasets {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    public static final String STREET = "STREET";
+
+    private static final int BATCH_SIZE = 10000;
+
+    private Datasets() {
+    }
+
+    /**
+     * @param properties {@code key=value} pairs, they override {@code application.properties}
+     * @throws IllegalStateException when a property did not end up with the given value
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        // passed as command line arguments, default properties would lose to application.properties
+        String[] args = new String[properties.length + 2];
+        args[0] = "--logging.level.root=WARN";
+        args[1] = "--spring.jpa.properties.hibernate.format_sql=false";
+        for (int i = 0; i < properties.length; i++) {
+            args[i + 2] = "--" + properties[i];
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslIntroApplication.class).web
+                (false).bannerMode(Banner.Mode.OFF).run(args);
+
+        // a benchmark parameter that is silently not applied measures the defaults under its name
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            String key = property.substring(0, separator);
+            String value = property.substring(separator + 1);
+            String actual = context.getEnvironment().getProperty(key);
+            if (!value.equals(actual)) {
+                context.close();
+                throw new IllegalStateException("Property " + key + " is " + actual + ", not " + value);
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Inserts persons with ids {@code 1..count} and unique names {@code NAME0..NAME(count-1)}, each with
+     * {@code addresses} addresses. Existing rows are deleted.
+     */
+    static void seed(ApplicationContext context, int count, final int addresses) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("delete from ADDRESS");
+        jdbcTemplate.update("delete from PERSON");
+
+        for (int chunk = 0; chunk < count; chunk += BATCH_SIZE) {
+            final int offset = chunk;
+            final int size = Math.min(BATCH_SIZE, count - chunk);
+
+            jdbcTemplate.batchUpdate("insert into PERSON (id, name, surname) values (?, ?, ?)", new
+                    BatchPreparedStatementSetter() {
+
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, offset + i + 1);
+                    ps.setString(2, NAME + (offset + i));
+                    ps.setString(3, SURNAME + (offset + i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+
+            if (addresses > 0) {
+                jdbcTemplate.batchUpdate("insert into ADDRESS (id, street, person_id) values (?, ?, ?)", new
+                        BatchPreparedStatementSetter() {
+
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, (long) offset * addresses + i + 1);
+                        ps.setString(2, STREET + (offset * addresses + i));
+                        ps.setLong(3, offset + i / addresses + 1);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return size * addresses;
+                    }
+                });
+            }
+        }
+    }
+}
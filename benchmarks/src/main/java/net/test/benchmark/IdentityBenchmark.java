@@ -0,0 +1,146 @@
+package net.test.benchmark;
+
+import net.test.entity.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code HashSet}/{@code HashMap} operations on {@code entities} persons with the id based identity of
+ * {@link net.test.entity.AbstractEntity} compared with the former one hashing and comparing id, name and surname.
+ * Lookups use other instances of the same rows, as loaded by another persistence context.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class IdentityBenchmark {
+
+    @Param({"1000000"})
+    public int entities;
+
+    @Param({"true", "false"})
+    public boolean idIdentity;
+
+    private Object[] persons;
+    private Object[] copies;
+    private Set<Object> set;
+    private Map<Object, Integer> map;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        persons = new Object[entities];
+        copies = new Object[entities];
+        for (int i = 0; i < entities; i++) {
+            persons[i] = person(i);
+            copies[i] = person(i);
+        }
+
+        set = new HashSet<>();
+        map = new HashMap<>();
+        for (int i = 0; i < entities; i++) {
+            set.add(persons[i]);
+            map.put(persons[i], i);
+        }
+    }
+
+    @Benchmark
+    public int addAll() {
+        Set<Object> added = new HashSet<>();
+        for (Object person : persons) {
+            added.add(person);
+        }
+        return added.size();
+    }
+
+    @Benchmark
+    public int contains() {
+        int found = 0;
+        for (Object copy : copies) {
+            if (set.contains(copy)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long mapGet() {
+        long sum = 0;
+        for (Object copy : copies) {
+            sum += map.get(copy);
+        }
+        return sum;
+    }
+
+    private Object person(long id) {
+        String name = Datasets.NAME + id;
+        if (idIdentity) {
+            Person person = new Person();
+            person.setId(id + 1);
+            person.setName(name);
+            person.setSurname(Datasets.SURNAME);
+            return person;
+        }
+        return new FieldIdentityPerson(id + 1, name, Datasets.SURNAME);
+    }
+
+    /**
+     * Identity of {@link Person} before {@link net.test.entity.AbstractEntity}.
+     */
+    private static final class FieldIdentityPerson {
+
+        private final Long id;
+        private final String name;
+        private final String surname;
+
+        FieldIdentityPerson(Long id, String name, String surname) {
+            this.id = id;
+            this.name = name;
+            this.surname = surname;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            FieldIdentityPerson person = (FieldIdentityPerson) o;
+
+            if (id != null ? !id.equals(person.id) : person.id != null)
+                return false;
+            if (name != null ? !name.equals(person.name) : person.name != null)
+                return false;
+            return surname != null ? surname.equals(person.surname) : person.surname == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = id != null ? id.hashCode() : 0;
+            result = 31 * result + (name != null ? name.hashCode() : 0);
+            result = 31 * result + (surname != null ? surname.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.test.benchmark;
+
+import net.test.entity.Person;
+import net.test.query.LookupResult;
+import net.test.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static net.test.predicate.PersonPredicates.nameEquals;
+
+/**
+ * Persons for many names looked up one {@code findOne(nameEquals(name))} at a time compared with
+ * {@link PersonRepository#findAllByNames(java.util.Collection)}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+    @Param({"100000"})
+    public int persons;
+
+    @Param({"10", "1000", "5000"})
+    public int names;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+
+    private List<String> lookedUp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start();
+        Datasets.seed(context, persons, 0);
+        personRepository = context.getBean(PersonRepository.class);
+
+        lookedUp = new ArrayList<>(names);
+        for (int i = 0; i < names; i++) {
+            // spread over the whole table, every tenth name does not exist
+            lookedUp.add(i % 10 == 9 ? "MISSING" + i : Datasets.NAME + (long) i * 7919 % persons);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int oneByOne() {
+        int found = 0;
+        for (String name : lookedUp) {
+            if (personRepository.findOne(nameEquals(name)) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int batched() {
+        LookupResult<String, Person> result = personRepository.findAllByNames(lookedUp);
+        return result.asMap().size() - result.getMissing().size();
+    }
+}
@@ -0,0 +1,99 @@
+package net.test.benchmark;
+
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.predicate.AbstractPredicates;
+import net.test.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.test.predicate.PersonPredicates.nameContains;
+import static net.test.predicate.PersonPredicates.nameLike;
+import static net.test.predicate.PersonPredicates.nameStartsWith;
+
+/**
+ * Name search by prefix and by substring, {@code LIKE} predicates compared with the indexed ones.
+ * <p>
+ * Each search matches about a dozen of {@code persons} rows. With {@code nameIndex=false} the {@code IDX_PERSON_NAME}
+ * index is dropped, as it was before the name search predicates were added. A million persons with their trigrams need
+ * more than 2 GB of heap.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class NameSearchBenchmark {
+
+    @Param({"1000000"})
+    public int persons;
+
+    @Param({"true", "false"})
+    public boolean nameIndex;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start();
+        // PERSON_NAME_GRAM is filled in by the trigger
+        Datasets.seed(context, persons, 0);
+        personRepository = context.getBean(PersonRepository.class);
+
+        if (!nameIndex) {
+            context.getBean(JdbcTemplate.class).execute("drop index IDX_PERSON_NAME");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Iterable<Person> prefixLike() {
+        return personRepository.findAll(nameLike(Datasets.NAME + nextNumber()));
+    }
+
+    @Benchmark
+    public Iterable<Person> prefixIndexed() {
+        return personRepository.findAll(nameStartsWith(Datasets.NAME + nextNumber()));
+    }
+
+    @Benchmark
+    public Iterable<Person> containsLike() {
+        return personRepository.findAll(QPerson.person.name.like(AbstractPredicates.like(true, nextNumber())));
+    }
+
+    @Benchmark
+    public Iterable<Person> containsGrams() {
+        return personRepository.findAll(nameContains(nextNumber()));
+    }
+
+    private String nextNumber() {
+        // five digits, NAME12345 and NAME123450..NAME123459 start with them, about 20 names contain them
+        next = (next + 7919) % 90000;
+        return String.valueOf(10000 + next);
+    }
+}
@@ -0,0 +1,101 @@
+package net.test.benchmark;
+
+import net.test.cache.OffHeapPersonCache;
+import net.test.dto.PersonDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OffHeapPersonCache} holding {@code entries} persons compared with a {@link HashMap} of {@link PersonDTO}s.
+ * <p>
+ * Setup prints the heap retained by the filled cache and the duration of a full collection with it, add
+ * {@code -prof gc} for allocation and collections while reading and replacing entries. The off-heap cache needs
+ * about 80 bytes of direct memory per person at 10M entries, the forked JVM gets {@code -XX:MaxDirectMemorySize}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g", "-XX:MaxDirectMemorySize=1g"})
+@State(Scope.Benchmark)
+public class OffHeapCacheBenchmark {
+
+    @Param({"10000000"})
+    public int entries;
+
+    @Param({"true", "false"})
+    public boolean offHeap;
+
+    private OffHeapPersonCache cache;
+    private Map<Long, PersonDTO> map;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedHeapAfterGc();
+
+        if (offHeap) {
+            cache = new OffHeapPersonCache(entries, entries * 40);
+            for (int i = 0; i < entries; i++) {
+                cache.put(i, Datasets.NAME + i, Datasets.SURNAME);
+            }
+        } else {
+            map = new HashMap<>();
+            for (int i = 0; i < entries; i++) {
+                // new strings like rows read from JDBC
+                map.put((long) i, new PersonDTO((long) i, Datasets.NAME + i, new String(Datasets.SURNAME)));
+            }
+        }
+
+        long start = System.nanoTime();
+        long after = usedHeapAfterGc();
+        System.out.printf("%n%d entries, retained heap %d MB, full GC %d ms%s%n", entries, (after - before) >> 20,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), offHeap ? ", direct memory " + (cache
+                .getCapacityBytes() >> 20) + " MB" : "");
+    }
+
+    @Benchmark
+    public PersonDTO get() {
+        long id = nextId();
+        return offHeap ? cache.get(id) : map.get(id);
+    }
+
+    @Benchmark
+    public Object put() {
+        long id = nextId();
+        if (offHeap) {
+            cache.put(id, Datasets.NAME + id, Datasets.SURNAME);
+            return cache;
+        }
+        return map.put(id, new PersonDTO(id, Datasets.NAME + id, new String(Datasets.SURNAME)));
+    }
+
+    private long nextId() {
+        // visit the whole cache, not just the first entries
+        next = (next + 7919) % entries;
+        return next;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,96 @@
+package net.test.benchmark;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.OrderSpecifier;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.paging.Keyset;
+import net.test.paging.KeysetPage;
+import net.test.paging.KeysetPageRequest;
+import net.test.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PageRequest} (offset) paging compared with keyset paging at pages 1, 1 000 and 100 000.
+ * <p>
+ * Ordered by the primary key - keyset paging needs an index matching the {@code ORDER BY} to seek into.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PagingBenchmark {
+
+    public static final int PAGE_SIZE = 10;
+
+    @Param({"1000010"})
+    public int persons;
+
+    @Param({"1", "1000", "100000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+
+    private PageRequest pageRequest;
+    private KeysetPageRequest keysetPageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start();
+        Datasets.seed(context, persons, 0);
+        personRepository = context.getBean(PersonRepository.class);
+
+        pageRequest = new PageRequest(page - 1, PAGE_SIZE, new Sort("id"));
+
+        // position the cursor at the end of the previous page
+        List<OrderSpecifier<?>> order = Keyset.withTieBreaker(Collections.<OrderSpecifier<?>>emptyList(), QPerson
+                .person.id);
+        String cursor = null;
+        if (page > 1) {
+            Person last = personRepository.findAll(new PageRequest((page - 1) * PAGE_SIZE - 1, 1, new Sort("id")))
+                    .getContent().get(0);
+            cursor = Keyset.encode(new Object[]{last.getId()});
+        }
+        keysetPageRequest = new KeysetPageRequest(PAGE_SIZE, cursor, order, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Person> offset() {
+        return personRepository.findAll(new BooleanBuilder(), pageRequest);
+    }
+
+    @Benchmark
+    public KeysetPage<Person> keyset() {
+        return personRepository.findAll(new BooleanBuilder(), keysetPageRequest);
+    }
+}
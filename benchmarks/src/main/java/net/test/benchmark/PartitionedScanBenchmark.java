@@ -0,0 +1,84 @@
+package net.test.benchmark;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.query.PartitionedQueryExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scan of {@code persons} filtered to every tenth row, split into id ranges queried by 1, 2, 4 and 8 workers.
+ * <p>
+ * H2 runs with {@code MULTI_THREADED=1}, otherwise it executes one statement at a time and only the entity
+ * hydration runs in parallel.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PartitionedScanBenchmark {
+
+    @Param({"1000000"})
+    public int persons;
+
+    @Param({"1", "2", "4", "8"})
+    public int workers;
+
+    @Param({"true"})
+    public boolean multiThreaded;
+
+    private ConfigurableApplicationContext context;
+    private PartitionedQueryExecutor executor;
+
+    private Predicate predicate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start("spring.datasource.url=jdbc:h2:mem:partitioned;DB_CLOSE_ON_EXIT=FALSE" +
+                (multiThreaded ? ";MULTI_THREADED=1" : ""));
+        Datasets.seed(context, persons, 0);
+        executor = new PartitionedQueryExecutor(context.getBean(EntityManagerFactory.class), workers);
+
+        predicate = QPerson.person.surname.endsWith("7");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> scan() {
+        return executor.fetch(QPerson.person, QPerson.person.id, predicate, Collections.<OrderSpecifier<?>>emptyList());
+    }
+
+    @Benchmark
+    public List<Person> scanOrdered() {
+        return executor.fetch(QPerson.person, QPerson.person.id, predicate, Collections.<OrderSpecifier<?>>singletonList
+                (QPerson.person.surname.desc()));
+    }
+}
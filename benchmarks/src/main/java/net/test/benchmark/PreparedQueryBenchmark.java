@@ -0,0 +1,84 @@
+package net.test.benchmark;
+
+import net.test.entity.Person;
+import net.test.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static net.test.predicate.PersonPredicates.nameEquals;
+import static net.test.query.PersonPreparedQueries.BY_NAME;
+import static net.test.query.PersonPreparedQueries.NAME;
+
+/**
+ * Lookup by name with the query rebuilt per call, served from {@link net.test.query.CompiledQueryCache} and
+ * prepared once ({@link net.test.query.PersonPreparedQueries#BY_NAME}), with and without the statement cache of the
+ * pool.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PreparedQueryBenchmark {
+
+    @Param({"10000"})
+    public int persons;
+
+    @Param({"true", "false"})
+    public boolean statementCache;
+
+    private ConfigurableApplicationContext context;
+    private PersonRepository personRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // an empty value is not a valid argument, ConnectionState is the default of the pool
+        context = Datasets.start("spring.datasource.tomcat.jdbc-interceptors=" + (statementCache ?
+                "StatementCache(prepared=true,callable=false,max=500)" : "ConnectionState"));
+        Datasets.seed(context, persons, 0);
+        personRepository = context.getBean(PersonRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Iterable<Person> rebuilt() {
+        return personRepository.findAll(nameEquals(nextName()));
+    }
+
+    @Benchmark
+    public List<Person> compiled() {
+        return personRepository.findAllCompiled(nameEquals(nextName()));
+    }
+
+    @Benchmark
+    public List<Person> prepared() {
+        return personRepository.fetch(BY_NAME.bind(NAME, nextName()));
+    }
+
+    private String nextName() {
+        return Datasets.NAME + ThreadLocalRandom.current().nextInt(persons);
+    }
+}
@@ -0,0 +1,102 @@
+package net.test.benchmark;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.dto.PersonDTO;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading {@code rows} persons as managed entities compared with the reflective
+ * {@link Projections#constructor} projection and the generated {@link net.test.dto.PersonDTOProjection}.
+ * <p>
+ * Reports throughput and sampled latency percentiles, add {@code -prof gc} for allocation per operation.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    @Param({"100000"})
+    public int persons;
+
+    @Param({"10", "1000", "10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private PersonRepository personRepository;
+
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start();
+        Datasets.seed(context, persons, 0);
+
+        // outside of a transaction every query runs in its own persistence context, as in the tests
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory
+                .class));
+        personRepository = context.getBean(PersonRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PersonDTO> entities() {
+        // what most read endpoints do - load managed entities and copy the fields
+        List<PersonDTO> dtos = new ArrayList<>(rows);
+        for (Person person : personRepository.findAll(nextRange())) {
+            dtos.add(new PersonDTO(person.getId(), person.getName(), person.getSurname()));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<PersonDTO> projectionConstructor() {
+        return new JPAQueryFactory(entityManager).select(Projections.constructor(PersonDTO.class, QPerson.person.id,
+                QPerson.person.name, QPerson.person.surname)).from(QPerson.person).where(nextRange()).fetch();
+    }
+
+    @Benchmark
+    public List<PersonDTO> generatedProjection() {
+        return personRepository.findAllAsDto(nextRange());
+    }
+
+    private Predicate nextRange() {
+        // visit the whole table, not just the first rows
+        next = (next + 7919) % (persons - rows);
+        return QPerson.person.id.between(next + 1, next + rows);
+    }
+}
@@ -0,0 +1,126 @@
+package net.test.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.dto.PersonDTO;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static net.test.predicate.PersonPredicates.nameEquals;
+
+/**
+ * Lookup of a person by name in every query style used by {@code QuerydslIntroApplicationTests}.
+ * <p>
+ * Reports throughput and sampled latency percentiles, add {@code -prof gc} for allocation rates.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class QueryStyleBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int persons;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private PersonRepository personRepository;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start();
+        Datasets.seed(context, persons, 0);
+
+        // outside of a transaction every query runs in its own persistence context, as in the tests
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory
+                .class));
+        personRepository = context.getBean(PersonRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Person hqlInline() {
+        return entityManager.createQuery("from Person p where p.name = '" + nextName() + "'", Person.class)
+                .getSingleResult();
+    }
+
+    @Benchmark
+    public Person hqlParameter() {
+        TypedQuery<Person> query = entityManager.createQuery("from Person p where p.name = :name", Person.class);
+        query.setParameter("name", nextName());
+        return query.getSingleResult();
+    }
+
+    @Benchmark
+    public Person namedQuery() {
+        TypedQuery<Person> query = entityManager.createNamedQuery(Person.QUERY_FIND_BY_NAME, Person.class);
+        query.setParameter("name", nextName());
+        return query.getSingleResult();
+    }
+
+    @Benchmark
+    public Person jpaQueryFactory() {
+        return new JPAQueryFactory(entityManager).selectFrom(QPerson.person).where(QPerson.person.name.eq(nextName
+                ())).fetchOne();
+    }
+
+    @Benchmark
+    public Person predicateExecutor() {
+        return personRepository.findOne(QPerson.person.name.eq(nextName()));
+    }
+
+    @Benchmark
+    public Person predicateExecutorPersonPredicates() {
+        return personRepository.findOne(nameEquals(nextName()));
+    }
+
+    @Benchmark
+    public List<Person> compiledQueryCache() {
+        return personRepository.findAllCompiled(nameEquals(nextName()));
+    }
+
+    @Benchmark
+    public PersonDTO projectionConstructor() {
+        return new JPAQueryFactory(entityManager).select(Projections.constructor(PersonDTO.class, QPerson.person.id,
+                QPerson.person.name, QPerson.person.surname)).from(QPerson.person).where(QPerson.person.name.eq
+                (nextName())).fetchOne();
+    }
+
+    private String nextName() {
+        // visit the whole table, not just the first rows
+        next = (next + 7919) % persons;
+        return Datasets.NAME + next;
+    }
+}
@@ -0,0 +1,99 @@
+package net.test.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.reporting.Rollup;
+import net.test.reporting.RollupService;
+import net.test.reporting.Rollups;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard reads of {@link Rollups#ADDRESSES_BY_PERSON} served by {@link RollupService} compared with the same
+ * aggregate queried live, for one person and for all persons.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RollupBenchmark {
+
+    @Param({"10000"})
+    public int persons;
+
+    @Param({"2", "100"})
+    public int addresses;
+
+    private ConfigurableApplicationContext context;
+    private RollupService rollupService;
+    private JPAQueryFactory jpaQueryFactory;
+
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start("app.reporting.refresh-interval=0");
+        Datasets.seed(context, persons, addresses);
+
+        rollupService = context.getBean(RollupService.class);
+        rollupService.rebuild(Rollups.ADDRESSES_BY_PERSON);
+        jpaQueryFactory = context.getBean(JPAQueryFactory.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long liveOne() {
+        Rollup<Long> rollup = Rollups.ADDRESSES_BY_PERSON;
+        Long value = jpaQueryFactory.select(rollup.getAggregate()).from(rollup.getRoot()).where(rollup.getKey().eq
+                (nextPersonId())).fetchOne();
+        return value != null ? value : 0;
+    }
+
+    @Benchmark
+    public long rollupOne() {
+        long personId = nextPersonId();
+        return rollupService.read(Rollups.ADDRESSES_BY_PERSON, Collections.singletonList(personId)).get(personId);
+    }
+
+    @Benchmark
+    public List<Tuple> liveAll() {
+        Rollup<Long> rollup = Rollups.ADDRESSES_BY_PERSON;
+        return jpaQueryFactory.select(rollup.getKey(), rollup.getAggregate()).from(rollup.getRoot()).where(rollup
+                .getKey().isNotNull()).groupBy(rollup.getKey()).fetch();
+    }
+
+    @Benchmark
+    public Object rollupAll() {
+        return rollupService.read(Rollups.ADDRESSES_BY_PERSON).getValues();
+    }
+
+    private long nextPersonId() {
+        // visit the whole table, not just the first rows
+        next = (next + 7919) % persons;
+        return next + 1;
+    }
+}
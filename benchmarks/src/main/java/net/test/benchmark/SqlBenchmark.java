@@ -0,0 +1,98 @@
+package net.test.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.dto.PersonDTO;
+import net.test.dto.PersonDTOProjection;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.sql.PersonSqlRepository;
+import net.test.sql.SPerson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flat reads of a range of persons with {@link JPAQueryFactory} - as entities and as DTOs - compared with
+ * {@link PersonSqlRepository}. Every read runs in a read-only transaction of its own.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SqlBenchmark {
+
+    @Param({"100000"})
+    public int persons;
+
+    @Param({"1", "100", "10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private JPAQueryFactory jpaQueryFactory;
+    private PersonSqlRepository personSqlRepository;
+    private TransactionTemplate readOnly;
+
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = Datasets.start();
+        Datasets.seed(context, persons, 0);
+
+        jpaQueryFactory = context.getBean(JPAQueryFactory.class);
+        personSqlRepository = context.getBean(PersonSqlRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> jpaEntities() {
+        long from = nextFrom();
+        return readOnly.execute(status -> jpaQueryFactory.selectFrom(QPerson.person).where(QPerson.person.id.between
+                (from, from + rows - 1)).fetch());
+    }
+
+    @Benchmark
+    public List<PersonDTO> jpaDtos() {
+        long from = nextFrom();
+        return readOnly.execute(status -> jpaQueryFactory.select(PersonDTOProjection.PERSON_DTO).from(QPerson
+                .person).where(QPerson.person.id.between(from, from + rows - 1)).fetch());
+    }
+
+    @Benchmark
+    public List<PersonDTO> sqlDtos() {
+        long from = nextFrom();
+        return personSqlRepository.findAll(SPerson.person.id.between(from, from + rows - 1));
+    }
+
+    private long nextFrom() {
+        // ids are 1..persons, visit the whole table
+        next = (next + 7919) % (persons - rows + 1);
+        return next + 1;
+    }
+}
@@ -0,0 +1,51 @@
+package net.test.benchmark;
+
+import net.test.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.test.predicate.PersonPredicates.nameEquals;
+
+/**
+ * Cold start to the first query with the persistence unit read from the build time
+ * {@link net.test.bootstrap.EntityRegistry} compared with classpath scanning. Every fork is a fresh JVM measured once.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"true", "false"})
+    public boolean registry;
+
+    private ConfigurableApplicationContext context;
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object firstQuery() {
+        context = Datasets.start("app.bootstrap.entity-registry=" + registry);
+        return context.getBean(PersonRepository.class).findAll(nameEquals(Datasets.NAME));
+    }
+}
@@ -1,9 +1,22 @@
 package net.test;
 
+import net.test.config.BootstrapConfiguration;
+import net.test.config.CacheConfiguration;
+import net.test.config.MetricsConfiguration;
+import net.test.config.QuerydslConfiguration;
+import net.test.config.ReportingConfiguration;
+import net.test.config.RoutingConfiguration;
+import net.test.config.SearchConfiguration;
+import net.test.config.ServiceConfiguration;
+import net.test.config.SqlConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import({QuerydslConfiguration.class, ServiceConfiguration.class, CacheConfiguration.class, MetricsConfiguration.class,
+        ReportingConfiguration.class, RoutingConfiguration.class, BootstrapConfiguration.class, SqlConfiguration.class,
+        SearchConfiguration.class})
 public class QuerydslIntroApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,86 @@
+package net.test.bootstrap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Entity classes and named queries found at build time by {@link EntityRegistryProcessor}, used instead of scanning
+ * the classpath for entities at startup, see {@link net.test.config.BootstrapConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class EntityRegistry {
+
+    public static final String LOCATION = "META-INF/entity-registry.properties";
+
+    private static final String ENTITIES = "entities";
+    private static final String NAMED_QUERY = "named-query.";
+
+    private final List<String> entityClassNames;
+    private final Map<String, String> namedQueries;
+
+    public EntityRegistry(List<String> entityClassNames, Map<String, String> namedQueries) {
+        this.entityClassNames = Collections.unmodifiableList(new ArrayList<>(entityClassNames));
+        this.namedQueries = Collections.unmodifiableMap(new TreeMap<>(namedQueries));
+    }
+
+    /**
+     * @return registry written at build time, {@code null} if the build did not write one
+     */
+    public static EntityRegistry load(ClassLoader classLoader) {
+        try (InputStream in = classLoader.getResourceAsStream(LOCATION)) {
+            if (in == null) {
+                return null;
+            }
+
+            Properties properties = new Properties();
+            properties.load(in);
+
+            String entities = properties.getProperty(ENTITIES, "");
+            Map<String, String> namedQueries = new TreeMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(NAMED_QUERY)) {
+                    namedQueries.put(key.substring(NAMED_QUERY.length()), properties.getProperty(key));
+                }
+            }
+            return new EntityRegistry(entities.isEmpty() ? Collections.<String>emptyList() : Arrays.asList(entities
+                    .split(",")), namedQueries);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + LOCATION, e);
+        }
+    }
+
+    public void store(OutputStream out) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(ENTITIES, String.join(",", entityClassNames));
+        for (Map.Entry<String, String> query : namedQueries.entrySet()) {
+            properties.setProperty(NAMED_QUERY + query.getKey(), query.getValue());
+        }
+        properties.store(out, "written by " + EntityRegistryProcessor.class.getName());
+    }
+
+    public List<String> getEntityClassNames() {
+        return entityClassNames;
+    }
+
+    /**
+     * @return JPQL by query name
+     */
+    public Map<String, String> getNamedQueries() {
+        return namedQueries;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityRegistry{" + "entities=" + entityClassNames.size() + ", namedQueries=" + namedQueries.size() +
+                '}';
+    }
+}
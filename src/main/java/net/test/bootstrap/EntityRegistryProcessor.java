@@ -0,0 +1,124 @@
+package net.test.bootstrap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.persistence.Entity;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the {@link EntityRegistry} - entity classes and named queries - at build time, run by the second
+ * {@code apt-maven-plugin} execution in {@code pom.xml} once this class is compiled.
+ * <p>
+ * Fails the build on duplicate named queries and on named queries selecting from unknown entities. The queries are
+ * not parsed here - that needs the mapped entities - but by Hibernate at startup.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@SupportedAnnotationTypes("javax.persistence.Entity")
+@SupportedOptions(EntityRegistryProcessor.OUTPUT_OPTION)
+public class EntityRegistryProcessor extends AbstractProcessor {
+
+    /**
+     * Directory the registry is written to, the classes directory.
+     */
+    public static final String OUTPUT_OPTION = "entityRegistry.output";
+
+    private static final Pattern ENTITY_REFERENCE = Pattern.compile("\\b(?:from|join)\\s+([A-Z]\\w*)", Pattern
+            .CASE_INSENSITIVE);
+
+    private final TreeSet<String> entities = new TreeSet<>();
+    private final TreeSet<String> entityNames = new TreeSet<>();
+    private final Map<String, String> namedQueries = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Entity.class)) {
+            TypeElement type = (TypeElement) element;
+            entities.add(type.getQualifiedName().toString());
+
+            String name = type.getAnnotation(Entity.class).name();
+            entityNames.add(name.isEmpty() ? type.getSimpleName().toString() : name);
+
+            List<NamedQuery> queries = new ArrayList<>();
+            if (type.getAnnotation(NamedQuery.class) != null) {
+                queries.add(type.getAnnotation(NamedQuery.class));
+            }
+            if (type.getAnnotation(NamedQueries.class) != null) {
+                queries.addAll(Arrays.asList(type.getAnnotation(NamedQueries.class).value()));
+            }
+            for (NamedQuery query : queries) {
+                if (namedQueries.put(query.name(), query.query()) != null) {
+                    error(type, "Duplicate named query " + query.name());
+                }
+            }
+        }
+
+        if (roundEnv.processingOver()) {
+            validate();
+            write();
+        }
+        return false;
+    }
+
+    private void validate() {
+        for (Map.Entry<String, String> query : namedQueries.entrySet()) {
+            Matcher matcher = ENTITY_REFERENCE.matcher(query.getValue());
+            while (matcher.find()) {
+                // joins through paths start with a (lower case) alias
+                if (Character.isUpperCase(matcher.group(1).charAt(0)) && !entityNames.contains(matcher.group(1))) {
+                    error(null, "Named query " + query.getKey() + " selects from unknown entity " + matcher.group
+                            (1));
+                }
+            }
+        }
+    }
+
+    private void write() {
+        String output = processingEnv.getOptions().get(OUTPUT_OPTION);
+        if (output == null) {
+            error(null, "Option " + OUTPUT_OPTION + " not set");
+            return;
+        }
+
+        EntityRegistry registry = new EntityRegistry(new ArrayList<>(entities), namedQueries);
+        Path file = Paths.get(output, EntityRegistry.LOCATION);
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                registry.store(out);
+            }
+        } catch (IOException e) {
+            error(null, "Cannot write " + file + ": " + e);
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,64 @@
+package net.test.cache;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.internal.StandardQueryCache;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Hit ratios of the Hibernate second-level and query cache.
+ * <p>
+ * Counts are taken from Hibernate {@link Statistics}, they stay at zero unless
+ * {@code hibernate.generate_statistics} is enabled.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class CacheMetrics {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * @return statistics of the entity region, all zero if the entity is not cached
+     */
+    public CacheStatistics entity(Class<?> entityClass) {
+        // entity regions are named after the entity class unless configured otherwise
+        String region = entityClass.getName();
+        SecondLevelCacheStatistics statistics = getStatistics().getSecondLevelCacheStatistics(region);
+        if (statistics == null) {
+            return new CacheStatistics(region, 0, 0, 0);
+        }
+
+        return new CacheStatistics(region, statistics.getHitCount(), statistics.getMissCount(), statistics
+                .getPutCount());
+    }
+
+    /**
+     * @return statistics of all cacheable queries
+     */
+    public CacheStatistics queries() {
+        Statistics statistics = getStatistics();
+        return new CacheStatistics(StandardQueryCache.class.getName(), statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount());
+    }
+
+    public boolean isEnabled() {
+        return getStatistics().isStatisticsEnabled();
+    }
+
+    /**
+     * Resets all Hibernate statistics, not just the cache ones.
+     */
+    public void clear() {
+        getStatistics().clear();
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,51 @@
+package net.test.cache;
+
+/**
+ * Hit/miss counts of a second-level or query cache region, see {@link CacheMetrics}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class CacheStatistics {
+
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+
+    public CacheStatistics(String region, long hits, long misses, long puts) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    /**
+     * @return hits divided by lookups, {@code 0} if there were no lookups
+     */
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" + "region='" + region + '\'' + ", hits=" + hits + ", misses=" + misses + ", puts="
+                + puts + ", hitRatio=" + String.format("%.2f", getHitRatio()) + '}';
+    }
+}
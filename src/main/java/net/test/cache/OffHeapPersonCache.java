@@ -0,0 +1,400 @@
+package net.test.cache;
+
+import net.test.dto.PersonDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cache of person rows by primitive {@code long} id, stored outside of the Java heap.
+ * <p>
+ * Rows are appended to a circular log in a direct {@link ByteBuffer} as {@code id, name, surname}, the oldest rows are
+ * evicted when the log or the index is full. The index is an open addressing hash table (linear probing) in another
+ * direct buffer, mapping the id to the position of its latest row. Apart from a few fields nothing lives on the heap,
+ * whatever the number of cached rows, so the cache adds nothing to the work of the garbage collector.
+ * <p>
+ * A hit decodes a new {@link PersonDTO}. Reads run in parallel, writes are serialized. Read-through callers take a
+ * {@link #stamp()} before loading the row and pass it to {@link #put(long, String, String, long)}, so a row loaded
+ * before a concurrent invalidation is not cached after it.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class OffHeapPersonCache {
+
+    // index slot: long id, int position of the row + 1 (0 - empty slot)
+    private static final int SLOT_SIZE = 12;
+
+    // row: int length of the whole row, long id, short name length (-1 - null), name, short surname length, surname
+    private static final int ROW_HEADER_SIZE = 4 + 8;
+    // written instead of a row that does not fit before the end of the log, reading continues at the start
+    private static final int WRAP = -1;
+
+    private final int maxEntries;
+    private final int slotMask;
+    private final ByteBuffer index;
+    private final ByteBuffer log;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // next row is written at head, the oldest row starts at tail
+    private int head;
+    private int tail;
+    private int logSize;
+    private int entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long puts;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * @param maxEntries maximum number of cached persons
+     * @param maxBytes   size of the row log, a row takes about 16 bytes plus the UTF-8 name and surname
+     */
+    public OffHeapPersonCache(int maxEntries, int maxBytes) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Max entries and max bytes must be positive!");
+        }
+
+        this.maxEntries = maxEntries;
+        // load factor at most 0.5, linear probing degrades quickly above it
+        int slots = Integer.highestOneBit(Math.max(maxEntries, 2) * 2 - 1) << 1;
+        this.slotMask = slots - 1;
+        this.index = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        this.log = ByteBuffer.allocateDirect(maxBytes);
+    }
+
+    /**
+     * @return cached person, {@code null} if not cached
+     */
+    public PersonDTO get(long id) {
+        lock.readLock().lock();
+        try {
+            int position = find(id);
+            if (position < 0) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+
+            int offset = position + ROW_HEADER_SIZE;
+            String name = readString(offset);
+            offset += 2 + Math.max(log.getShort(offset), 0);
+            String surname = readString(offset);
+            return new PersonDTO(id, name, surname);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return stamp to pass to {@link #put(long, String, String, long)}, changes with every invalidation
+     */
+    public long stamp() {
+        lock.readLock().lock();
+        try {
+            return invalidations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Caches the person, replacing the cached row with the same id.
+     */
+    public void put(long id, String name, String surname) {
+        put(id, name, surname, -1);
+    }
+
+    /**
+     * Caches the person unless anything was invalidated since the stamp was taken.
+     *
+     * @param stamp result of {@link #stamp()} taken before the person was loaded, {@code -1} - put anyway
+     * @return whether the person was cached
+     */
+    public boolean put(long id, String name, String surname, long stamp) {
+        byte[] nameBytes = bytes(name);
+        byte[] surnameBytes = bytes(surname);
+        int rowSize = ROW_HEADER_SIZE + 2 + length(nameBytes) + 2 + length(surnameBytes);
+
+        lock.writeLock().lock();
+        try {
+            if (stamp >= 0 && stamp != invalidations) {
+                return false;
+            }
+            if (rowSize > log.capacity()) {
+                // cannot be cached, the old row must not be served either
+                if (remove(id, -1)) {
+                    entries--;
+                }
+                return false;
+            }
+            puts++;
+
+            int position = allocate(rowSize);
+            log.putInt(position, rowSize);
+            log.putLong(position + 4, id);
+            int offset = writeString(position + ROW_HEADER_SIZE, nameBytes);
+            writeString(offset, surnameBytes);
+
+            // the replaced row stays in the log until evicted, its index entry points elsewhere by then
+            if (!replace(id, position)) {
+                while (entries >= maxEntries) {
+                    evict();
+                }
+                insert(id, position);
+                entries++;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate(long id) {
+        lock.writeLock().lock();
+        try {
+            invalidations++;
+            if (remove(id, -1)) {
+                entries--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            invalidations++;
+            for (int slot = 0; slot <= slotMask; slot++) {
+                index.putInt(slot * SLOT_SIZE + 8, 0);
+            }
+            head = 0;
+            tail = 0;
+            logSize = 0;
+            entries = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of cached persons
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return bytes of direct memory taken by the index and the row log
+     */
+    public long getCapacityBytes() {
+        return (long) index.capacity() + log.capacity();
+    }
+
+    public CacheStatistics statistics() {
+        lock.readLock().lock();
+        try {
+            return new CacheStatistics(OffHeapPersonCache.class.getName(), hits.sum(), misses.sum(), puts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of persons dropped to make room for others
+     */
+    public long getEvictions() {
+        lock.readLock().lock();
+        try {
+            return evictions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return position of the row of the id, {@code -1} if not cached
+     */
+    private int find(long id) {
+        for (int slot = slot(id); ; slot = (slot + 1) & slotMask) {
+            int position = index.getInt(slot * SLOT_SIZE + 8) - 1;
+            if (position < 0) {
+                return -1;
+            }
+            if (index.getLong(slot * SLOT_SIZE) == id) {
+                return position;
+            }
+        }
+    }
+
+    private boolean replace(long id, int position) {
+        for (int slot = slot(id); ; slot = (slot + 1) & slotMask) {
+            if (index.getInt(slot * SLOT_SIZE + 8) == 0) {
+                return false;
+            }
+            if (index.getLong(slot * SLOT_SIZE) == id) {
+                index.putInt(slot * SLOT_SIZE + 8, position + 1);
+                return true;
+            }
+        }
+    }
+
+    private void insert(long id, int position) {
+        int slot = slot(id);
+        while (index.getInt(slot * SLOT_SIZE + 8) != 0) {
+            slot = (slot + 1) & slotMask;
+        }
+        index.putLong(slot * SLOT_SIZE, id);
+        index.putInt(slot * SLOT_SIZE + 8, position + 1);
+    }
+
+    /**
+     * Removes the id from the index, with backward shift so lookups need no tombstones.
+     *
+     * @param position only remove if the id points to this row, {@code -1} - whatever row it points to
+     */
+    private boolean remove(long id, int position) {
+        int slot = slot(id);
+        while (true) {
+            int stored = index.getInt(slot * SLOT_SIZE + 8);
+            if (stored == 0) {
+                return false;
+            }
+            if (index.getLong(slot * SLOT_SIZE) == id) {
+                if (position >= 0 && stored != position + 1) {
+                    return false;
+                }
+                break;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+
+        int hole = slot;
+        for (int next = (hole + 1) & slotMask; index.getInt(next * SLOT_SIZE + 8) != 0; next = (next + 1) &
+                slotMask) {
+            int home = slot(index.getLong(next * SLOT_SIZE));
+            // move the entry into the hole unless its home slot lies cyclically in (hole, next]
+            boolean movable = hole <= next ? home <= hole || home > next : home <= hole && home > next;
+            if (movable) {
+                index.putLong(hole * SLOT_SIZE, index.getLong(next * SLOT_SIZE));
+                index.putInt(hole * SLOT_SIZE + 8, index.getInt(next * SLOT_SIZE + 8));
+                hole = next;
+            }
+        }
+        index.putInt(hole * SLOT_SIZE + 8, 0);
+        return true;
+    }
+
+    /**
+     * @return position of {@code rowSize} free bytes at the head of the log, evicting the oldest rows if needed
+     */
+    private int allocate(int rowSize) {
+        if (head + rowSize > log.capacity()) {
+            // rest of the log is skipped, the row goes to the start
+            while (logSize > 0 && tail >= head) {
+                evict();
+            }
+            if (logSize > 0) {
+                if (head + 4 <= log.capacity()) {
+                    log.putInt(head, WRAP);
+                }
+                logSize += log.capacity() - head;
+            }
+            head = 0;
+            if (logSize == 0) {
+                tail = 0;
+            }
+        }
+
+        while (logSize > 0 && head <= tail && tail < head + rowSize) {
+            evict();
+        }
+
+        int position = head;
+        head += rowSize;
+        logSize += rowSize;
+        return position;
+    }
+
+    /**
+     * Drops the oldest row from the log, and from the index if it is the latest row of its id.
+     */
+    private void evict() {
+        if (tail + 4 > log.capacity() || log.getInt(tail) == WRAP) {
+            logSize -= log.capacity() - tail;
+            tail = 0;
+            return;
+        }
+
+        int rowSize = log.getInt(tail);
+        if (remove(log.getLong(tail + 4), tail)) {
+            entries--;
+            evictions++;
+        }
+        tail += rowSize;
+        logSize -= rowSize;
+        if (logSize == 0) {
+            head = 0;
+            tail = 0;
+        }
+    }
+
+    private int slot(long id) {
+        // Long.hashCode spread by the 64-bit golden ratio, sequence ids are consecutive
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & slotMask;
+    }
+
+    private String readString(int offset) {
+        short length = log.getShort(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = log.get(offset + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int writeString(int offset, byte[] bytes) {
+        if (bytes == null) {
+            log.putShort(offset, (short) -1);
+            return offset + 2;
+        }
+        log.putShort(offset, (short) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            log.put(offset + 2 + i, bytes[i]);
+        }
+        return offset + 2 + bytes.length;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    /**
+     * @return UTF-8 bytes, {@code null} for {@code null}
+     */
+    private static byte[] bytes(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Value longer than " + Short.MAX_VALUE + " bytes");
+        }
+        return bytes;
+    }
+}
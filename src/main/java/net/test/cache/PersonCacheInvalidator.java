@@ -0,0 +1,75 @@
+package net.test.cache;
+
+import net.test.entity.Person;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Removes updated and deleted persons from {@link OffHeapPersonCache}.
+ * <p>
+ * Persons are invalidated when the change is flushed, so the writing transaction does not read its old rows, and
+ * again after commit, so a row read by another transaction in between is not kept. Bulk statements do not fire entity
+ * events, {@link net.test.repository.PersonRepository#deleteAll(com.querydsl.core.types.Predicate)} and
+ * {@code updateAll} invalidate the whole cache instead.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class PersonCacheInvalidator implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final transient OffHeapPersonCache cache;
+
+    public PersonCacheInvalidator(OffHeapPersonCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Registers the listener with the Hibernate session factory behind the entity manager factory.
+     */
+    public void register(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        invalidate(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        invalidate(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return Person.class.equals(persister.getMappedClass());
+    }
+
+    private void invalidate(Object entity, Object id) {
+        if (entity instanceof Person && id != null) {
+            cache.invalidate((Long) id);
+        }
+    }
+}
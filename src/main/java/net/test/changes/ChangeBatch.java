@@ -0,0 +1,39 @@
+package net.test.changes;
+
+import net.test.entity.ChangeEvent;
+
+import java.util.List;
+
+/**
+ * Events read by {@link ChangeFeed#read(long, int)} and the cursor to read the next batch with.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class ChangeBatch {
+
+    private final List<ChangeEvent> events;
+    private final long cursor;
+
+    public ChangeBatch(List<ChangeEvent> events, long cursor) {
+        this.events = events;
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return events in feed order, detached
+     */
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * @return position of the last event, the requested cursor if there are no events
+     */
+    public long getCursor() {
+        return cursor;
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+}
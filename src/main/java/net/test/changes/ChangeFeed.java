@@ -0,0 +1,139 @@
+package net.test.changes;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.entity.ChangeEvent;
+import net.test.entity.QChangeEvent;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * Ordered, resumable feed of {@code PERSON} and {@code ADDRESS} changes recorded by {@link ChangeFeedTrigger}.
+ * <p>
+ * Consumers keep the cursor of the last batch they processed and pass it to the next {@link #read(long, int)}, also
+ * after a restart. Event ids are taken when the change is made, but transactions commit in another order, so a
+ * consumer reading by id could skip an event committed after it read past its id. The feed position is therefore
+ * assigned on read, to committed events that have none yet, in id order - an event is never positioned before an
+ * event already read.
+ * <p>
+ * Positions are assigned under the lock of this instance, so one application instance may use the feed of a
+ * database. Another instance assigning positions at the same time could position an event before one already read.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class ChangeFeed {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ChangeFeed(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * @param cursor cursor of the previous batch, {@code 0} - from the first event
+     * @param limit  maximum number of events
+     * @return events after the cursor
+     */
+    public synchronized ChangeBatch read(long cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive!");
+        }
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+
+            JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+            QChangeEvent changeEvent = QChangeEvent.changeEvent;
+
+            assignPositions(jpaQueryFactory);
+            List<ChangeEvent> events = jpaQueryFactory.selectFrom(changeEvent).where(changeEvent.position.gt(cursor))
+                    .orderBy(changeEvent.position.asc()).limit(limit).fetch();
+
+            entityManager.getTransaction().commit();
+
+            return new ChangeBatch(events, events.isEmpty() ? cursor : events.get(events.size() - 1).getPosition());
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+        }
+    }
+
+    /**
+     * @return cursor of the last committed event, a consumer starting from it skips all changes made so far
+     */
+    public synchronized long head() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+
+            JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+            QChangeEvent changeEvent = QChangeEvent.changeEvent;
+
+            assignPositions(jpaQueryFactory);
+            Long head = jpaQueryFactory.select(changeEvent.position.max()).from(changeEvent).fetchOne();
+
+            entityManager.getTransaction().commit();
+            return head != null ? head : 0;
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Deletes events all consumers have processed, except the last positioned one - positions continue after it.
+     *
+     * @param cursor cursor of the last batch processed by every consumer
+     * @return number of deleted events
+     */
+    public synchronized long purge(long cursor) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+
+            QChangeEvent changeEvent = QChangeEvent.changeEvent;
+            QChangeEvent last = new QChangeEvent("last");
+            long deleted = new JPAQueryFactory(entityManager).delete(changeEvent).where(changeEvent.position.loe
+                    (cursor), changeEvent.position.lt(JPAExpressions.select(last.position.max()).from(last)))
+                    .execute();
+
+            entityManager.getTransaction().commit();
+            return deleted;
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Positions committed events without a position after all positioned ones, keeping their id order.
+     */
+    private void assignPositions(JPAQueryFactory jpaQueryFactory) {
+        QChangeEvent changeEvent = QChangeEvent.changeEvent;
+
+        Tuple ids = jpaQueryFactory.select(changeEvent.id.min(), changeEvent.id.max()).from(changeEvent).where
+                (changeEvent.position.isNull()).fetchOne();
+        Long minId = ids.get(changeEvent.id.min());
+        if (minId == null) {
+            return;
+        }
+        Long maxId = ids.get(changeEvent.id.max());
+        Long lastPosition = jpaQueryFactory.select(changeEvent.position.max()).from(changeEvent).fetchOne();
+        long offset = (lastPosition != null ? lastPosition + 1 : 1) - minId;
+
+        // one statement, a gap in ids (an event not committed yet) leaves a gap in positions, the range leaves out
+        // events committed since the ids were read with an id below minId
+        jpaQueryFactory.update(changeEvent).set(changeEvent.position, changeEvent.id.add(offset)).where(changeEvent
+                .position.isNull(), changeEvent.id.between(minId, maxId)).execute();
+    }
+}
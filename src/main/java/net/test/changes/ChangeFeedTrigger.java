@@ -0,0 +1,70 @@
+package net.test.changes;
+
+import net.test.entity.ChangeEvent.Operation;
+import net.test.search.NameGramTrigger;
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * H2 trigger recording every change of the table it is created on to {@code CHANGE_EVENT}, created by
+ * {@code import.sql}.
+ * <p>
+ * Like {@link NameGramTrigger} it runs in the transaction of the statement that changed the row, so changes made by
+ * repositories, JPQL bulk updates and deletes and plain JDBC are all recorded, and rolled back changes are not. Like
+ * it, it is created only with a schema created by Hibernate, the startup fails without it.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class ChangeFeedTrigger implements Trigger {
+
+    private static final String INSERT_EVENT = "insert into CHANGE_EVENT (TABLE_NAME, ROW_ID, OPERATION, CHANGED_AT) " +
+            "values (?, ?, ?, ?)";
+
+    private String tableName;
+    private int idIndex;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int
+            type) throws SQLException {
+        this.tableName = tableName;
+        idIndex = NameGramTrigger.columnIndex(conn, schemaName, tableName, "ID");
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_EVENT)) {
+            if (oldRow == null) {
+                add(insert, newRow[idIndex], Operation.INSERT);
+            } else if (newRow == null) {
+                add(insert, oldRow[idIndex], Operation.DELETE);
+            } else if (oldRow[idIndex].equals(newRow[idIndex])) {
+                add(insert, newRow[idIndex], Operation.UPDATE);
+            } else {
+                // changed primary key, consumers see the old row go and the new one come
+                add(insert, oldRow[idIndex], Operation.DELETE);
+                add(insert, newRow[idIndex], Operation.INSERT);
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void remove() {
+    }
+
+    private void add(PreparedStatement insert, Object id, Operation operation) throws SQLException {
+        insert.setString(1, tableName);
+        insert.setObject(2, id);
+        insert.setString(3, operation.name());
+        insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+        insert.addBatch();
+    }
+}
@@ -0,0 +1,48 @@
+package net.test.config;
+
+import net.test.bootstrap.EntityRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnResource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.persistenceunit.DefaultPersistenceUnitManager;
+import org.springframework.orm.jpa.persistenceunit.PersistenceUnitManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Persistence unit listing the entities of the {@link EntityRegistry} written at build time, so neither Spring nor
+ * Hibernate scan the classpath for entities and mapping files at startup. Named queries are still parsed at startup,
+ * the build only checks the entities they select from.
+ * <p>
+ * Active when the registry is on the classpath, {@code app.bootstrap.entity-registry=false} goes back to scanning.
+ * Imported by {@link net.test.QuerydslIntroApplication} like {@link QuerydslConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Configuration
+@ConditionalOnResource(resources = "classpath:" + EntityRegistry.LOCATION)
+@ConditionalOnProperty(name = "app.bootstrap.entity-registry", havingValue = "true", matchIfMissing = true)
+public class BootstrapConfiguration {
+
+    @Bean
+    public EntityRegistry entityRegistry() {
+        return EntityRegistry.load(BootstrapConfiguration.class.getClassLoader());
+    }
+
+    @Bean
+    public PersistenceUnitManager persistenceUnitManager(DataSource dataSource, EntityRegistry entityRegistry) {
+        DefaultPersistenceUnitManager persistenceUnitManager = new DefaultPersistenceUnitManager();
+        persistenceUnitManager.setDefaultDataSource(dataSource);
+        // no persistence.xml lookup, an empty default unit
+        persistenceUnitManager.setPersistenceXmlLocations();
+        persistenceUnitManager.setPackagesToScan();
+        // nothing is scanned, the classpath root cannot be resolved inside a jar
+        persistenceUnitManager.setDefaultPersistenceUnitRootLocation(null);
+        persistenceUnitManager.setPersistenceUnitPostProcessors(persistenceUnit -> {
+            entityRegistry.getEntityClassNames().forEach(persistenceUnit::addManagedClassName);
+            persistenceUnit.getProperties().setProperty("hibernate.archive.autodetection", "none");
+        });
+        return persistenceUnitManager;
+    }
+}
@@ -0,0 +1,36 @@
+package net.test.config;
+
+import net.test.cache.CacheMetrics;
+import net.test.cache.OffHeapPersonCache;
+import net.test.cache.PersonCacheInvalidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Monitoring of the Hibernate second-level and query cache, the cache itself is configured in
+ * {@code application.properties}. Off-heap cache of persons by id, kept up to date by Hibernate entity events.
+ * <p>
+ * Imported by {@link net.test.QuerydslIntroApplication} like {@link QuerydslConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Configuration
+public class CacheConfiguration {
+
+    @Bean
+    public CacheMetrics cacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return new CacheMetrics(entityManagerFactory);
+    }
+
+    @Bean
+    public OffHeapPersonCache offHeapPersonCache(EntityManagerFactory entityManagerFactory, @Value
+            ("${app.person-cache.max-entries:100000}") int maxEntries, @Value("${app.person-cache.max-bytes:8388608}")
+            int maxBytes) {
+        OffHeapPersonCache cache = new OffHeapPersonCache(maxEntries, maxBytes);
+        new PersonCacheInvalidator(cache).register(entityManagerFactory);
+        return cache;
+    }
+}
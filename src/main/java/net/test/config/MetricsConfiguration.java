@@ -0,0 +1,48 @@
+package net.test.config;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.metrics.InstrumentedJPAQueryFactory;
+import net.test.metrics.QueryMetricsEndpoint;
+import net.test.metrics.QueryMetricsRegistry;
+import net.test.metrics.RepositoryMetricsPostProcessor;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Per query shape metrics of repository predicate calls and of queries built by the {@link JPAQueryFactory} bean.
+ * <p>
+ * Imported by {@link net.test.QuerydslIntroApplication} like {@link QuerydslConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(ObjectFactory<QueryMetricsRegistry>
+            queryMetricsRegistry) {
+        return new RepositoryMetricsPostProcessor(queryMetricsRegistry);
+    }
+
+    @Bean
+    public QueryMetricsRegistry queryMetricsRegistry(@Value("${app.query-metrics.max-shapes:500}") int maxShapes) {
+        return new QueryMetricsRegistry(maxShapes);
+    }
+
+    @Bean
+    public JPAQueryFactory jpaQueryFactory(EntityManagerFactory entityManagerFactory, QueryMetricsRegistry
+            queryMetricsRegistry) {
+        return new InstrumentedJPAQueryFactory(SharedEntityManagerCreator.createSharedEntityManager
+                (entityManagerFactory), queryMetricsRegistry);
+    }
+
+    @Bean
+    public QueryMetricsEndpoint queryMetricsEndpoint(QueryMetricsRegistry queryMetricsRegistry) {
+        return new QueryMetricsEndpoint(queryMetricsRegistry);
+    }
+}
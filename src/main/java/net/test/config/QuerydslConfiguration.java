@@ -0,0 +1,79 @@
+package net.test.config;
+
+import net.test.query.AddressBatchLoader;
+import net.test.query.AsyncQueryExecutor;
+import net.test.query.BatchLookup;
+import net.test.query.CompiledQueryCache;
+import net.test.query.PartitionedQueryExecutor;
+import net.test.query.StreamingQueryExecutor;
+import net.test.routing.ReadWriteRoutingDataSource;
+import org.apache.tomcat.jdbc.pool.DataSourceProxy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Querydsl infrastructure used by repository implementations.
+ * <p>
+ * Imported by {@link net.test.QuerydslIntroApplication} rather than component scanned, so the beans are also available
+ * in {@code @DataJpaTest} slices.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Configuration
+public class QuerydslConfiguration {
+
+    @Bean
+    public CompiledQueryCache compiledQueryCache(@Value("${app.query-cache.max-size:256}") int maxSize) {
+        return new CompiledQueryCache(maxSize);
+    }
+
+    @Bean
+    public StreamingQueryExecutor streamingQueryExecutor(EntityManagerFactory entityManagerFactory, @Value
+            ("${app.stream.fetch-size:500}") int fetchSize, @Value("${app.stream.clear-interval:1000}") int
+            clearInterval) {
+        return new StreamingQueryExecutor(entityManagerFactory, fetchSize, clearInterval);
+    }
+
+    @Bean
+    public PartitionedQueryExecutor partitionedQueryExecutor(EntityManagerFactory entityManagerFactory, @Value
+            ("${app.partitioned-query.workers:4}") int workers) {
+        return new PartitionedQueryExecutor(entityManagerFactory, workers);
+    }
+
+    @Bean
+    public AsyncQueryExecutor asyncQueryExecutor(DataSource dataSource, @Value("${app.async-query.max-concurrency:0}")
+            int maxConcurrency, @Value("${app.async-query.virtual-threads:true}") boolean virtualThreads) {
+        return new AsyncQueryExecutor(maxConcurrency > 0 ? maxConcurrency : maxActive(dataSource), virtualThreads);
+    }
+
+    @Bean
+    public AddressBatchLoader addressBatchLoader(@Value("${app.batch-load.chunk-size:500}") int chunkSize) {
+        return new AddressBatchLoader(chunkSize);
+    }
+
+    @Bean
+    public BatchLookup batchLookup(@Value("${app.batch-lookup.max-parameters:1000}") int maxParameters) {
+        return new BatchLookup(maxParameters);
+    }
+
+    /**
+     * @return size of the connection pool, {@code 10} if not known
+     */
+    private static int maxActive(DataSource dataSource) {
+        if (dataSource instanceof DataSourceProxy) {
+            return ((DataSourceProxy) dataSource).getPoolProperties().getMaxActive();
+        }
+        if (dataSource instanceof DelegatingDataSource) {
+            return maxActive(((DelegatingDataSource) dataSource).getTargetDataSource());
+        }
+        if (dataSource instanceof ReadWriteRoutingDataSource) {
+            return maxActive(((ReadWriteRoutingDataSource) dataSource).getPrimary());
+        }
+        return 10;
+    }
+}
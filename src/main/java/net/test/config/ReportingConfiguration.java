@@ -0,0 +1,31 @@
+package net.test.config;
+
+import net.test.changes.ChangeFeed;
+import net.test.reporting.RollupService;
+import net.test.reporting.Rollups;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+
+/**
+ * Materialized rollups served to the dashboards, see {@link Rollups}.
+ * <p>
+ * Imported by {@link net.test.QuerydslIntroApplication} like {@link QuerydslConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Configuration
+public class ReportingConfiguration {
+
+    @Bean
+    public RollupService rollupService(EntityManagerFactory entityManagerFactory, ChangeFeed changeFeed, @Value
+            ("${app.reporting.refresh-interval:60000}") long refreshInterval, @Value
+            ("${app.reporting.max-staleness:-1}") long maxStaleness, @Value("${app.reporting.batch-size:50}") int
+            batchSize) {
+        return new RollupService(entityManagerFactory, changeFeed, Arrays.asList(Rollups.PERSONS_BY_NAME, Rollups
+                .ADDRESSES_BY_PERSON), refreshInterval, maxStaleness, batchSize);
+    }
+}
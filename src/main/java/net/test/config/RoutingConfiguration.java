@@ -0,0 +1,59 @@
+package net.test.config;
+
+import net.test.routing.ReadWriteRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.bind.PropertySourcesPropertyValues;
+import org.springframework.boot.bind.RelaxedDataBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for read-only transactions, see {@link ReadWriteRoutingDataSource}. Active when
+ * {@code app.routing.replica-urls} is set, replaces the data source of Spring Boot - the primary is configured by the
+ * usual {@code spring.datasource} properties, the replicas share its driver and credentials. All pools are Tomcat pools
+ * configured by {@code spring.datasource.tomcat} like the one Spring Boot would create, e.g. with the same
+ * {@code max-active} and statement cache.
+ * <p>
+ * Imported by {@link net.test.QuerydslIntroApplication} like {@link QuerydslConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Configuration
+@ConditionalOnProperty("app.routing.replica-urls")
+public class RoutingConfiguration {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, ConfigurableEnvironment environment, @Value
+            ("${app.routing.replica-urls}") String[] replicaUrls, @Value("${app.routing.lag-window:1000}") long
+            lagWindow) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            replicas.add(pool(properties, environment, url.trim()));
+        }
+        // fetches the connection at the first statement, when the transaction is known to be read-only
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(pool(properties, environment,
+                properties.determineUrl()), replicas, lagWindow));
+    }
+
+    /**
+     * Same as {@code @ConfigurationProperties("spring.datasource.tomcat")} on a pool bean, which binds one bean only.
+     */
+    private static org.apache.tomcat.jdbc.pool.DataSource pool(DataSourceProperties properties,
+                                                                ConfigurableEnvironment environment, String url) {
+        org.apache.tomcat.jdbc.pool.DataSource pool = (org.apache.tomcat.jdbc.pool.DataSource) properties
+                .initializeDataSourceBuilder().type(org.apache.tomcat.jdbc.pool.DataSource.class).url(url).build();
+        new RelaxedDataBinder(pool, "spring.datasource.tomcat").bind(new PropertySourcesPropertyValues(environment
+                .getPropertySources()));
+        return pool;
+    }
+}
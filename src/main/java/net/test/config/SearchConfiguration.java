@@ -0,0 +1,33 @@
+package net.test.config;
+
+import net.test.search.NameGramTrigger;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Checks at startup that the name search trigger is installed, see {@link NameGramTrigger}.
+ * <p>
+ * Imported by {@link net.test.QuerydslIntroApplication} like {@link QuerydslConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Configuration
+public class SearchConfiguration {
+
+    private final DataSource dataSource;
+
+    /**
+     * @param entityManagerFactory not used, the schema and its triggers are created with it
+     */
+    public SearchConfiguration(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void requireTriggers() {
+        NameGramTrigger.requireInstalled(dataSource, "PERSON", NameGramTrigger.class);
+    }
+}
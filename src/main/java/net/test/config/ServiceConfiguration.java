@@ -0,0 +1,38 @@
+package net.test.config;
+
+import net.test.changes.ChangeFeed;
+import net.test.changes.ChangeFeedTrigger;
+import net.test.search.NameGramTrigger;
+import net.test.service.BulkInsertService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * Services working with the persistence layer directly.
+ * <p>
+ * Imported by {@link net.test.QuerydslIntroApplication} like {@link QuerydslConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Configuration
+public class ServiceConfiguration {
+
+    @Bean
+    public BulkInsertService bulkInsertService(EntityManagerFactory entityManagerFactory, @Value
+            ("${app.bulk-insert.batch-size:50}") int batchSize, @Value("${app.bulk-insert.commit-interval:10000}")
+            int commitInterval) {
+        return new BulkInsertService(entityManagerFactory, batchSize, commitInterval);
+    }
+
+    @Bean
+    public ChangeFeed changeFeed(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+        // without the triggers nothing is recorded and consumers silently miss every change
+        NameGramTrigger.requireInstalled(dataSource, "PERSON", ChangeFeedTrigger.class);
+        NameGramTrigger.requireInstalled(dataSource, "ADDRESS", ChangeFeedTrigger.class);
+        return new ChangeFeed(entityManagerFactory);
+    }
+}
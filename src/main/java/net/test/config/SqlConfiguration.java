@@ -0,0 +1,43 @@
+package net.test.config;
+
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.SQLTemplates;
+import com.querydsl.sql.SQLTemplatesRegistry;
+import com.querydsl.sql.spring.SpringConnectionProvider;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
+import net.test.sql.PersonSqlRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+
+/**
+ * Querydsl SQL on the data source of JPA, see {@link PersonSqlRepository}. Connections are taken from the current
+ * transaction by {@link SpringConnectionProvider}, which fails outside of one, and SQL exceptions are translated to
+ * the Spring {@code DataAccessException} hierarchy like JPA ones.
+ * <p>
+ * Imported by {@link net.test.QuerydslIntroApplication} like {@link QuerydslConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Configuration
+public class SqlConfiguration {
+
+    @Bean
+    public SQLQueryFactory sqlQueryFactory(DataSource dataSource) throws MetaDataAccessException {
+        // dialect of the database, like JPAProvider.getTemplates for JPQL
+        SQLTemplates templates = (SQLTemplates) JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> new
+                SQLTemplatesRegistry().getTemplates(metaData));
+
+        com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(templates);
+        configuration.setExceptionTranslator(new SpringExceptionTranslator());
+        return new SQLQueryFactory(configuration, new SpringConnectionProvider(dataSource));
+    }
+
+    @Bean
+    public PersonSqlRepository personSqlRepository(SQLQueryFactory sqlQueryFactory) {
+        return new PersonSqlRepository(sqlQueryFactory);
+    }
+}
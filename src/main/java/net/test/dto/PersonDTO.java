@@ -1,16 +1,25 @@
 package net.test.dto;
 
+import com.querydsl.core.annotations.QueryProjection;
+
 import java.io.Serializable;
 
 /**
+ * Immutable snapshot of a {@link net.test.entity.Person} row, equal to snapshots of the same values. The hash is
+ * computed on first use and kept.
+ *
  * @author Zbynek Vavros (zbynek.vavros@i.cz)
  */
 public class PersonDTO implements Serializable {
 
-    private Long id;
-    private String name;
-    private String surname;
+    private final Long id;
+    private final String name;
+    private final String surname;
+
+    // 0 - not computed yet, like String
+    private transient int hash;
 
+    @QueryProjection
     public PersonDTO(Long id, String name, String surname) {
         this.id = id;
         this.name = name;
@@ -21,26 +30,14 @@ public class PersonDTO implements Serializable {
         return id;
     }
 
-    public void setId(Long id) {
-        this.id = id;
-    }
-
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getSurname() {
         return surname;
     }
 
-    public void setSurname(String surname) {
-        this.surname = surname;
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -50,6 +47,9 @@ public class PersonDTO implements Serializable {
 
         PersonDTO personDTO = (PersonDTO) o;
 
+        // cheap mismatches first, the strings are compared last
+        if (hash != 0 && personDTO.hash != 0 && hash != personDTO.hash)
+            return false;
         if (id != null ? !id.equals(personDTO.id) : personDTO.id != null)
             return false;
         if (name != null ? !name.equals(personDTO.name) : personDTO.name != null)
@@ -59,9 +59,13 @@ public class PersonDTO implements Serializable {
 
     @Override
     public int hashCode() {
-        int result = id != null ? id.hashCode() : 0;
-        result = 31 * result + (name != null ? name.hashCode() : 0);
-        result = 31 * result + (surname != null ? surname.hashCode() : 0);
+        int result = hash;
+        if (result == 0) {
+            result = id != null ? id.hashCode() : 0;
+            result = 31 * result + (name != null ? name.hashCode() : 0);
+            result = 31 * result + (surname != null ? surname.hashCode() : 0);
+            hash = result;
+        }
         return result;
     }
 
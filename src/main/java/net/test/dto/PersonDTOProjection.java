@@ -0,0 +1,37 @@
+package net.test.dto;
+
+import com.querydsl.core.types.Expression;
+import net.test.entity.QPerson;
+
+/**
+ * Read-only projection of {@link net.test.entity.Person} rows to {@link PersonDTO}.
+ * <p>
+ * The constructor signature is checked at compile time by the generated {@link QPersonDTO}, rows are then turned into
+ * DTOs by a direct constructor call - unlike {@link com.querydsl.core.types.Projections#constructor} no reflection is
+ * involved per row. Querydsl JPA selects just the three columns, so no entity and no dirty-checking snapshot is
+ * created.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class PersonDTOProjection extends QPersonDTO {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final PersonDTOProjection PERSON_DTO = new PersonDTOProjection(QPerson.person);
+
+    public PersonDTOProjection(QPerson person) {
+        super(person.id, person.name, person.surname);
+    }
+
+    /**
+     * The same projection of other paths, e.g. of {@link net.test.sql.SPerson}.
+     */
+    public PersonDTOProjection(Expression<Long> id, Expression<String> name, Expression<String> surname) {
+        super(id, name, surname);
+    }
+
+    @Override
+    public PersonDTO newInstance(Object... args) {
+        return new PersonDTO((Long) args[0], (String) args[1], (String) args[2]);
+    }
+}
@@ -0,0 +1,54 @@
+package net.test.dto;
+
+import java.io.Serializable;
+
+/**
+ * Name and surname of a {@link net.test.entity.Person}, a key of
+ * {@link net.test.repository.PersonRepositoryCustom#findAllByFullNames(java.util.Collection)}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class PersonName implements Serializable {
+
+    private final String name;
+    private final String surname;
+
+    public PersonName(String name, String surname) {
+        if (name == null || surname == null) {
+            throw new IllegalArgumentException("Name and surname must not be null!");
+        }
+
+        this.name = name;
+        this.surname = surname;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        PersonName that = (PersonName) o;
+
+        return name.equals(that.name) && surname.equals(that.surname);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * name.hashCode() + surname.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "net.test.dto.PersonName{" + "name='" + name + '\'' + ", surname='" + surname + '\'' + '}';
+    }
+}
@@ -0,0 +1,60 @@
+package net.test.entity;
+
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.HibernateProxyHelper;
+
+import java.io.Serializable;
+
+/**
+ * Identity of entities by their generated id, stable across the transient to managed transition.
+ * <p>
+ * The hash code is the hash of the id, or of the instance if it was first hashed before the id was assigned - an
+ * entity put into a {@code HashSet} before it is saved is still found there after. Entities are equal when their ids
+ * are, an entity hashed without an id stays equal only to itself. No other state is hashed or compared, the entities
+ * may change while in a set.
+ * <p>
+ * Proxies are compared by class and id without being initialized.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public abstract class AbstractEntity implements Serializable {
+
+    // not persistent, a deserialized or reloaded entity is hashed by its id again
+    private transient boolean hashedWithoutId;
+
+    public abstract Long getId();
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof AbstractEntity) || HibernateProxyHelper.getClassWithoutInitializingProxy(this) !=
+                HibernateProxyHelper.getClassWithoutInitializingProxy(o))
+            return false;
+
+        AbstractEntity entity = (AbstractEntity) o;
+
+        Long id = id(this);
+        return id != null && id.equals(id(entity)) && !hashedWithoutId && !entity.hashedWithoutId;
+    }
+
+    @Override
+    public final int hashCode() {
+        Long id = id(this);
+        if (id == null || hashedWithoutId) {
+            hashedWithoutId = true;
+            return System.identityHashCode(this);
+        }
+        return Long.hashCode(id);
+    }
+
+    /**
+     * With field access {@code getId()} of a proxy initializes it, the lazy initializer knows the id.
+     */
+    private static Long id(AbstractEntity entity) {
+        if (entity instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) entity).getHibernateLazyInitializer().getIdentifier();
+        }
+        return entity.getId();
+    }
+}
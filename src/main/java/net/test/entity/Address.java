@@ -1,17 +1,22 @@
 package net.test.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
-import java.io.Serializable;
 
 /**
  * @author Zbynek Vavros (zbynek.vavros@i.cz)
  */
 @Entity
 @Table(name = "ADDRESS")
-public class Address implements Serializable {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class Address extends AbstractEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ADDRESS_SEQ")
+    @SequenceGenerator(name = "ADDRESS_SEQ", sequenceName = "ADDRESS_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -21,6 +26,7 @@ public class Address implements Serializable {
     @JoinColumn(name = "PERSON_ID")
     private Person person;
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -45,27 +51,6 @@ public class Address implements Serializable {
         this.person = person;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o)
-            return true;
-        if (o == null || getClass() != o.getClass())
-            return false;
-
-        Address address = (Address) o;
-
-        if (id != null ? !id.equals(address.id) : address.id != null)
-            return false;
-        return street != null ? street.equals(address.street) : address.street == null;
-    }
-
-    @Override
-    public int hashCode() {
-        int result = id != null ? id.hashCode() : 0;
-        result = 31 * result + (street != null ? street.hashCode() : 0);
-        return result;
-    }
-
     @Override
     public String toString() {
         return "Address{" + "id=" + id + ", street='" + street + '\'' + '}';
@@ -0,0 +1,91 @@
+package net.test.entity;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Insert, update or delete of a {@code PERSON} or {@code ADDRESS} row, see {@link net.test.changes.ChangeFeed}.
+ * <p>
+ * Rows are written by {@link net.test.changes.ChangeFeedTrigger} in the transaction of the change, the feed position
+ * is assigned when the event is first read after its commit.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Entity
+@Table(name = "CHANGE_EVENT", indexes = @Index(name = "IDX_CHANGE_EVENT_POSITION", columnList = "FEED_POSITION"))
+public class ChangeEvent implements Serializable {
+
+    public enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // null until sequenced by the feed
+    @Column(name = "FEED_POSITION")
+    private Long position;
+
+    @Column(nullable = false, length = 30)
+    private String tableName;
+
+    @Column(nullable = false)
+    private Long rowId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 6)
+    private Operation operation;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date changedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Long getRowId() {
+        return rowId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public Date getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        ChangeEvent that = (ChangeEvent) o;
+
+        return id != null ? id.equals(that.id) : that.id == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" + "position=" + position + ", tableName='" + tableName + '\'' + ", rowId=" + rowId +
+                ", operation=" + operation + '}';
+    }
+}
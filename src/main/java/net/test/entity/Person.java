@@ -1,8 +1,11 @@
 package net.test.entity;
 
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.jpa.QueryHints;
+
 import javax.persistence.*;
-import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -10,14 +13,25 @@ import java.util.Set;
  * @author Zbynek Vavros (zbynek.vavros@i.cz)
  */
 @Entity
-@Table(name = "PERSON")
-@NamedQueries(@NamedQuery(name = Person.QUERY_FIND_BY_NAME, query = "from Person p where p.name = :name"))
-public class Person implements Serializable {
+@Table(name = "PERSON", indexes = {@Index(name = "IDX_PERSON_NAME", columnList = "NAME"), @Index(name =
+        "IDX_PERSON_SURNAME", columnList = "SURNAME")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedQueries(@NamedQuery(name = Person.QUERY_FIND_BY_NAME, query = "from Person p where p.name = :name", hints =
+        @QueryHint(name = QueryHints.HINT_CACHEABLE, value = "true")))
+@NamedEntityGraphs({@NamedEntityGraph(name = Person.GRAPH_SUMMARY), @NamedEntityGraph(name = Person
+        .GRAPH_WITH_ADDRESSES, attributeNodes = @NamedAttributeNode("addresses"))})
+public class Person extends AbstractEntity {
 
     public static final String QUERY_FIND_BY_NAME = "QUERY_FIND_BY_NAME";
 
+    // entity graphs of net.test.query.PersonFetchProfiles
+    public static final String GRAPH_SUMMARY = "Person.summary";
+    public static final String GRAPH_WITH_ADDRESSES = "Person.withAddresses";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "PERSON_SEQ")
+    @SequenceGenerator(name = "PERSON_SEQ", sequenceName = "PERSON_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -29,6 +43,7 @@ public class Person implements Serializable {
     @OneToMany(mappedBy = "person")
     private Set<Address> addresses = new HashSet<>();
 
+    @Override
     public Long getId() {
         return id;
     }
@@ -61,30 +76,6 @@ public class Person implements Serializable {
         this.addresses = addresses;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o)
-            return true;
-        if (o == null || getClass() != o.getClass())
-            return false;
-
-        Person person = (Person) o;
-
-        if (id != null ? !id.equals(person.id) : person.id != null)
-            return false;
-        if (name != null ? !name.equals(person.name) : person.name != null)
-            return false;
-        return surname != null ? surname.equals(person.surname) : person.surname == null;
-    }
-
-    @Override
-    public int hashCode() {
-        int result = id != null ? id.hashCode() : 0;
-        result = 31 * result + (name != null ? name.hashCode() : 0);
-        result = 31 * result + (surname != null ? surname.hashCode() : 0);
-        return result;
-    }
-
     @Override
     public String toString() {
         return "Person{" + "id=" + id + ", name='" + name + '\'' + ", surname='" + surname + '\'' + '}';
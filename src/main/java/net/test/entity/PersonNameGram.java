@@ -0,0 +1,92 @@
+package net.test.entity;
+
+import net.test.search.NameGrams;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Trigram of {@link Person#getName()}, see {@link net.test.search.NameGrams}.
+ * <p>
+ * Read only, rows are written by {@link net.test.search.NameGramTrigger} so they follow every change of
+ * {@code PERSON}, including bulk statements and plain JDBC.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Entity
+@Immutable
+// primary key (GRAM, PERSON_ID) serves the searches, the index the trigger
+@Table(name = "PERSON_NAME_GRAM", indexes = @Index(name = "IDX_PERSON_NAME_GRAM_PERSON", columnList = "PERSON_ID"))
+@IdClass(PersonNameGram.Key.class)
+public class PersonNameGram implements Serializable {
+
+    @Id
+    @Column(name = "PERSON_ID")
+    private Long personId;
+
+    @Id
+    @Column(length = NameGrams.LENGTH)
+    private String gram;
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public String getGram() {
+        return gram;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        PersonNameGram that = (PersonNameGram) o;
+
+        if (personId != null ? !personId.equals(that.personId) : that.personId != null)
+            return false;
+        return gram != null ? gram.equals(that.gram) : that.gram == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = personId != null ? personId.hashCode() : 0;
+        result = 31 * result + (gram != null ? gram.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PersonNameGram{" + "personId=" + personId + ", gram='" + gram + '\'' + '}';
+    }
+
+    public static class Key implements Serializable {
+
+        private Long personId;
+        private String gram;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            Key key = (Key) o;
+
+            if (personId != null ? !personId.equals(key.personId) : key.personId != null)
+                return false;
+            return gram != null ? gram.equals(key.gram) : key.gram == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = personId != null ? personId.hashCode() : 0;
+            result = 31 * result + (gram != null ? gram.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package net.test.entity;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Group a base row belonged to when its {@link net.test.reporting.Rollup} was last refreshed, so the old group can
+ * be recomputed when the row changes or is deleted.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Entity
+@Table(name = "ROLLUP_MEMBER")
+@IdClass(RollupMember.Key.class)
+public class RollupMember implements Serializable {
+
+    @Id
+    @Column(name = "ROLLUP", length = 50)
+    private String rollup;
+
+    @Id
+    @Column(name = "ROW_ID")
+    private Long rowId;
+
+    @Column(name = "GROUP_KEY", nullable = false)
+    private String groupKey;
+
+    protected RollupMember() {
+    }
+
+    public RollupMember(String rollup, Long rowId, String groupKey) {
+        this.rollup = rollup;
+        this.rowId = rowId;
+        this.groupKey = groupKey;
+    }
+
+    public String getRollup() {
+        return rollup;
+    }
+
+    public Long getRowId() {
+        return rowId;
+    }
+
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        RollupMember that = (RollupMember) o;
+
+        if (rollup != null ? !rollup.equals(that.rollup) : that.rollup != null)
+            return false;
+        return rowId != null ? rowId.equals(that.rowId) : that.rowId == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = rollup != null ? rollup.hashCode() : 0;
+        result = 31 * result + (rowId != null ? rowId.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RollupMember{" + "rollup='" + rollup + '\'' + ", rowId=" + rowId + ", groupKey='" + groupKey + '\'' +
+                '}';
+    }
+
+    public static class Key implements Serializable {
+
+        private String rollup;
+        private Long rowId;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            Key key = (Key) o;
+
+            if (rollup != null ? !rollup.equals(key.rollup) : key.rollup != null)
+                return false;
+            return rowId != null ? rowId.equals(key.rowId) : key.rowId == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = rollup != null ? rollup.hashCode() : 0;
+            result = 31 * result + (rowId != null ? rowId.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package net.test.entity;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Materialized aggregate of one group of a {@link net.test.reporting.Rollup}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Entity
+// primary key columns are ordered alphabetically, the index serves reads of a whole rollup
+@Table(name = "ROLLUP_ROW", indexes = @Index(name = "IDX_ROLLUP_ROW_ROLLUP", columnList = "ROLLUP, GROUP_KEY"))
+@IdClass(RollupRow.Key.class)
+public class RollupRow implements Serializable {
+
+    @Id
+    @Column(name = "ROLLUP", length = 50)
+    private String rollup;
+
+    @Id
+    @Column(name = "GROUP_KEY")
+    private String groupKey;
+
+    @Column(name = "AGGREGATE", nullable = false)
+    private long value;
+
+    protected RollupRow() {
+    }
+
+    public RollupRow(String rollup, String groupKey, long value) {
+        this.rollup = rollup;
+        this.groupKey = groupKey;
+        this.value = value;
+    }
+
+    public String getRollup() {
+        return rollup;
+    }
+
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        RollupRow rollupRow = (RollupRow) o;
+
+        if (rollup != null ? !rollup.equals(rollupRow.rollup) : rollupRow.rollup != null)
+            return false;
+        return groupKey != null ? groupKey.equals(rollupRow.groupKey) : rollupRow.groupKey == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = rollup != null ? rollup.hashCode() : 0;
+        result = 31 * result + (groupKey != null ? groupKey.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RollupRow{" + "rollup='" + rollup + '\'' + ", groupKey='" + groupKey + '\'' + ", value=" + value + '}';
+    }
+
+    public static class Key implements Serializable {
+
+        private String rollup;
+        private String groupKey;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            Key key = (Key) o;
+
+            if (rollup != null ? !rollup.equals(key.rollup) : key.rollup != null)
+                return false;
+            return groupKey != null ? groupKey.equals(key.groupKey) : key.groupKey == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = rollup != null ? rollup.hashCode() : 0;
+            result = 31 * result + (groupKey != null ? groupKey.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package net.test.entity;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Change feed cursor a {@link net.test.reporting.Rollup} was refreshed to, and when.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Entity
+@Table(name = "ROLLUP_STATE")
+public class RollupState implements Serializable {
+
+    @Id
+    @Column(name = "ROLLUP", length = 50)
+    private String rollup;
+
+    @Column(name = "FEED_CURSOR", nullable = false)
+    private long cursor;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
+    private Date refreshedAt;
+
+    protected RollupState() {
+    }
+
+    public RollupState(String rollup) {
+        this.rollup = rollup;
+    }
+
+    public String getRollup() {
+        return rollup;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(long cursor) {
+        this.cursor = cursor;
+    }
+
+    public Date getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    public void setRefreshedAt(Date refreshedAt) {
+        this.refreshedAt = refreshedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        RollupState that = (RollupState) o;
+
+        return rollup != null ? rollup.equals(that.rollup) : that.rollup == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return rollup != null ? rollup.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RollupState{" + "rollup='" + rollup + '\'' + ", cursor=" + cursor + ", refreshedAt=" + refreshedAt +
+                '}';
+    }
+}
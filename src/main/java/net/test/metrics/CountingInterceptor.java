@@ -0,0 +1,26 @@
+package net.test.metrics;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+/**
+ * Hibernate interceptor feeding {@link QueryCounters}, registered by {@code hibernate.ejb.interceptor}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class CountingInterceptor extends EmptyInterceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        QueryCounters.entityLoaded();
+        return false;
+    }
+
+    @Override
+    public String onPrepareStatement(String sql) {
+        QueryCounters.statementPrepared();
+        return sql;
+    }
+}
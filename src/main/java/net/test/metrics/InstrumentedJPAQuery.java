@@ -0,0 +1,74 @@
+package net.test.metrics;
+
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * {@link JPAQuery} recording {@code fetch*} calls under the serialized JPQL, which has the constants replaced by
+ * positional parameters already.
+ * <p>
+ * {@link #iterate()} is not recorded, the rows are not read by the time it returns.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class InstrumentedJPAQuery<T> extends JPAQuery<T> {
+
+    private final QueryMetricsRegistry registry;
+
+    private String jpql;
+    private String countJpql;
+
+    public InstrumentedJPAQuery(EntityManager entityManager, QueryMetricsRegistry registry) {
+        super(entityManager);
+        this.registry = registry;
+    }
+
+    @Override
+    public List<T> fetch() {
+        QuerySample sample = QuerySample.start();
+        List<T> results = super.fetch();
+        sample.stop(registry, jpql, results.size());
+        return results;
+    }
+
+    @Override
+    public T fetchOne() {
+        QuerySample sample = QuerySample.start();
+        T result = super.fetchOne();
+        sample.stop(registry, jpql, result == null ? 0 : 1);
+        return result;
+    }
+
+    @Override
+    public QueryResults<T> fetchResults() {
+        QuerySample sample = QuerySample.start();
+        QueryResults<T> results = super.fetchResults();
+        // the list query is skipped when the count is zero, the count query is always there
+        sample.stop(registry, countJpql, results.getResults().size());
+        return results;
+    }
+
+    @Override
+    public long fetchCount() {
+        QuerySample sample = QuerySample.start();
+        long count = super.fetchCount();
+        sample.stop(registry, countJpql, 1);
+        return count;
+    }
+
+    @Override
+    protected JPQLSerializer serialize(boolean forCountRow) {
+        JPQLSerializer serializer = super.serialize(forCountRow);
+        String serialized = serializer.toString().replace('\n', ' ');
+        if (forCountRow) {
+            countJpql = serialized;
+        } else {
+            jpql = serialized;
+        }
+        return serializer;
+    }
+}
@@ -0,0 +1,29 @@
+package net.test.metrics;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import javax.persistence.EntityManager;
+
+/**
+ * {@link JPAQueryFactory} creating {@link InstrumentedJPAQuery} instances. Update and delete clauses are not
+ * instrumented.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class InstrumentedJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager entityManager;
+    private final QueryMetricsRegistry registry;
+
+    public InstrumentedJPAQueryFactory(EntityManager entityManager, QueryMetricsRegistry registry) {
+        super(entityManager);
+        this.entityManager = entityManager;
+        this.registry = registry;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new InstrumentedJPAQuery<Void>(entityManager, registry);
+    }
+}
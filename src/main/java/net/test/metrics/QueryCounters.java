@@ -0,0 +1,42 @@
+package net.test.metrics;
+
+/**
+ * Per-thread counts of JDBC statements prepared and entities loaded by Hibernate, maintained by
+ * {@link CountingInterceptor}.
+ * <p>
+ * The counters only grow, {@link QuerySample} takes the difference between the start and the end of a query.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+final class QueryCounters {
+
+    private static final int STATEMENTS = 0;
+    private static final int ENTITIES = 1;
+
+    private static final ThreadLocal<long[]> COUNTERS = new ThreadLocal<long[]>() {
+
+        @Override
+        protected long[] initialValue() {
+            return new long[2];
+        }
+    };
+
+    private QueryCounters() {
+    }
+
+    static void statementPrepared() {
+        COUNTERS.get()[STATEMENTS]++;
+    }
+
+    static void entityLoaded() {
+        COUNTERS.get()[ENTITIES]++;
+    }
+
+    static long statements() {
+        return COUNTERS.get()[STATEMENTS];
+    }
+
+    static long entities() {
+        return COUNTERS.get()[ENTITIES];
+    }
+}
@@ -0,0 +1,54 @@
+package net.test.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint dumping {@link QueryMetricsRegistry}, the slowest shapes (by total latency) first. Latencies are
+ * in microseconds.
+ * <p>
+ * Exposed over JMX, and as {@code /querymetrics} when the application runs in a web server.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class QueryMetricsEndpoint extends AbstractEndpoint<List<Map<String, Object>>> {
+
+    private final QueryMetricsRegistry registry;
+
+    public QueryMetricsEndpoint(QueryMetricsRegistry registry) {
+        super("querymetrics");
+        this.registry = registry;
+    }
+
+    @Override
+    public List<Map<String, Object>> invoke() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (QueryShapeMetrics metrics : registry.getAll()) {
+            Histogram latency = metrics.getLatency();
+
+            Map<String, Object> latencyMap = new LinkedHashMap<>();
+            latencyMap.put("mean", latency.getMean());
+            latencyMap.put("p50", latency.getValueAtPercentile(50));
+            latencyMap.put("p90", latency.getValueAtPercentile(90));
+            latencyMap.put("p99", latency.getValueAtPercentile(99));
+            latencyMap.put("p999", latency.getValueAtPercentile(99.9));
+            latencyMap.put("max", latency.getMaxValue());
+
+            Map<String, Object> shape = new LinkedHashMap<>();
+            shape.put("shape", metrics.getShape());
+            shape.put("count", metrics.getCount());
+            shape.put("totalMillis", metrics.getTotalMillis());
+            shape.put("rows", metrics.getRows());
+            shape.put("statements", metrics.getStatements());
+            shape.put("entities", metrics.getEntities());
+            shape.put("latency", latencyMap);
+            result.add(shape);
+        }
+        return result;
+    }
+}
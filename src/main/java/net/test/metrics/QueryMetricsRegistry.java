@@ -0,0 +1,80 @@
+package net.test.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process registry of {@link QueryShapeMetrics} keyed by query shape.
+ * <p>
+ * Once {@code maxShapes} shapes are registered, further shapes are recorded under {@link #OTHER_SHAPES} so a
+ * predicate that does not normalize well cannot grow the registry without bounds.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class QueryMetricsRegistry {
+
+    public static final String OTHER_SHAPES = "<other>";
+
+    private final ConcurrentMap<String, QueryShapeMetrics> shapes = new ConcurrentHashMap<>();
+
+    private final int maxShapes;
+
+    public QueryMetricsRegistry(int maxShapes) {
+        if (maxShapes < 1) {
+            throw new IllegalArgumentException("Max shapes must be positive!");
+        }
+
+        this.maxShapes = maxShapes;
+    }
+
+    public void record(String shape, long nanos, long rows, long statements, long entities) {
+        QueryShapeMetrics metrics = shapes.get(shape);
+        if (metrics == null) {
+            if (shapes.size() >= maxShapes) {
+                shape = OTHER_SHAPES;
+            }
+
+            QueryShapeMetrics created = new QueryShapeMetrics(shape);
+            metrics = shapes.putIfAbsent(shape, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+
+        metrics.record(nanos, rows, statements, entities);
+    }
+
+    /**
+     * @return metrics of the shape, {@code null} if it was not recorded
+     */
+    public QueryShapeMetrics get(String shape) {
+        return shapes.get(shape);
+    }
+
+    /**
+     * @return metrics of all shapes, the ones with the highest total latency first
+     */
+    public List<QueryShapeMetrics> getAll() {
+        List<QueryShapeMetrics> result = new ArrayList<>(shapes.values());
+        Collections.sort(result, new Comparator<QueryShapeMetrics>() {
+
+            @Override
+            public int compare(QueryShapeMetrics o1, QueryShapeMetrics o2) {
+                return Long.compare(o2.getTotalMillis(), o1.getTotalMillis());
+            }
+        });
+        return result;
+    }
+
+    public int getSize() {
+        return shapes.size();
+    }
+
+    public void clear() {
+        shapes.clear();
+    }
+}
@@ -0,0 +1,58 @@
+package net.test.metrics;
+
+import net.test.paging.KeysetPage;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Latency, JDBC statements and loaded entities of a single query execution.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+final class QuerySample {
+
+    private final long startNanos;
+    private final long startStatements;
+    private final long startEntities;
+
+    private QuerySample() {
+        startStatements = QueryCounters.statements();
+        startEntities = QueryCounters.entities();
+        startNanos = System.nanoTime();
+    }
+
+    static QuerySample start() {
+        return new QuerySample();
+    }
+
+    void stop(QueryMetricsRegistry registry, String shape, long rows) {
+        long nanos = System.nanoTime() - startNanos;
+        registry.record(shape, nanos, rows, QueryCounters.statements() - startStatements, QueryCounters.entities() -
+                startEntities);
+    }
+
+    /**
+     * @return number of rows in a query result, {@code 1} for a single entity or scalar; streams are not counted
+     */
+    static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof KeysetPage) {
+            return ((KeysetPage<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Iterable || result instanceof Iterator) {
+            // not read by the time the call returns
+            return 0;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,76 @@
+package net.test.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of a single query shape - latency histogram, executions, rows, JDBC statements and entities loaded.
+ * <p>
+ * Latencies are recorded in microseconds with two significant digits, recording does not block.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class QueryShapeMetrics {
+
+    private final String shape;
+
+    private final Histogram latency = new ConcurrentHistogram(2);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong entities = new AtomicLong();
+
+    QueryShapeMetrics(String shape) {
+        this.shape = shape;
+    }
+
+    void record(long nanos, long rows, long statements, long entities) {
+        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        this.rows.addAndGet(rows);
+        this.statements.addAndGet(statements);
+        this.entities.addAndGet(entities);
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getStatements() {
+        return statements.get();
+    }
+
+    public long getEntities() {
+        return entities.get();
+    }
+
+    /**
+     * @return copy of the latency histogram in microseconds, consistent unlike the live one
+     */
+    public Histogram getLatency() {
+        return latency.copy();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryShapeMetrics{" + "shape='" + shape + '\'' + ", count=" + count + ", totalMillis=" +
+                getTotalMillis() + ", rows=" + rows + ", statements=" + statements + ", entities=" + entities + '}';
+    }
+}
@@ -0,0 +1,66 @@
+package net.test.metrics;
+
+import com.querydsl.core.types.Predicate;
+import net.test.query.QueryShape;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records repository methods taking a {@link Predicate} (e.g. {@code QueryDslPredicateExecutor} methods) under the
+ * shape {@code repository.method(normalized predicate)}, see {@link QueryShape#normalize(Predicate)}.
+ * <p>
+ * Other methods are passed through. Failed calls are not recorded.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private static final int NO_PREDICATE = -1;
+
+    private final String repositoryName;
+    private final QueryMetricsRegistry registry;
+
+    private final ConcurrentMap<Method, Integer> predicateIndexes = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsInterceptor(String repositoryName, QueryMetricsRegistry registry) {
+        this.repositoryName = repositoryName;
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int predicateIndex = predicateIndex(invocation.getMethod());
+        if (predicateIndex == NO_PREDICATE) {
+            return invocation.proceed();
+        }
+
+        QuerySample sample = QuerySample.start();
+        Object result = invocation.proceed();
+
+        Predicate predicate = (Predicate) invocation.getArguments()[predicateIndex];
+        sample.stop(registry, repositoryName + '.' + invocation.getMethod().getName() + '(' + QueryShape.normalize
+                (predicate) + ')', QuerySample.rows(result));
+
+        return result;
+    }
+
+    private int predicateIndex(Method method) {
+        Integer index = predicateIndexes.get(method);
+        if (index == null) {
+            index = NO_PREDICATE;
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (Predicate.class.isAssignableFrom(parameterTypes[i])) {
+                    index = i;
+                    break;
+                }
+            }
+            predicateIndexes.put(method, index);
+        }
+        return index;
+    }
+}
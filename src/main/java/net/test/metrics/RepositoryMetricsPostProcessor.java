@@ -0,0 +1,58 @@
+package net.test.metrics;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+/**
+ * Adds {@link RepositoryMetricsInterceptor} to Spring Data repository proxies.
+ * <p>
+ * Repositories are created by their factory beans when these are initialized, the proxy is taken from the factory
+ * bean. The interceptor is added right before the Spring Data interceptor executing the method - inside the
+ * transaction and exception translation interceptors, so only the query itself is measured.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectFactory<QueryMetricsRegistry> registry;
+
+    public RepositoryMetricsPostProcessor(ObjectFactory<QueryMetricsRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            Object repository = ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).getObject();
+            if (repository instanceof Advised) {
+                Advised advised = (Advised) repository;
+                advised.addAdvice(queryExecutorPosition(advised), new RepositoryMetricsInterceptor(beanName, registry
+                        .getObject()));
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * @return position of the Spring Data interceptor executing the method, it does not proceed down the chain
+     */
+    private static int queryExecutorPosition(Advised advised) {
+        Advisor[] advisors = advised.getAdvisors();
+        for (int i = 0; i < advisors.length; i++) {
+            if (advisors[i].getAdvice() instanceof RepositoryFactorySupport.QueryExecutorMethodInterceptor) {
+                return i;
+            }
+        }
+        return advisors.length;
+    }
+}
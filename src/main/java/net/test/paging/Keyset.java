@@ -0,0 +1,130 @@
+package net.test.paging;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.Base64Utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination support.
+ * <p>
+ * Instead of skipping {@code OFFSET} rows the page is started right after the sort key of the last row of the
+ * previous page:
+ * <pre>
+ * (k1 &gt; v1) or (k1 = v1 and k2 &gt; v2) or (k1 = v1 and k2 = v2 and id &gt; v3)
+ * </pre>
+ * The sort key always ends with a unique column (entity id) so the ordering is total. Sort key expressions must not
+ * evaluate to {@code null}.
+ * <p>
+ * The cursor token is an URL safe Base64 of the sort key values converted to {@code String}s.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class Keyset {
+
+    private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+
+    private Keyset() {
+    }
+
+    /**
+     * Appends ascending order by {@code id} unless the order already ends with it.
+     */
+    public static List<OrderSpecifier<?>> withTieBreaker(List<OrderSpecifier<?>> orderSpecifiers, Path<? extends
+            Comparable<?>> id) {
+        List<OrderSpecifier<?>> result = new ArrayList<>(orderSpecifiers);
+
+        if (result.isEmpty() || !id.equals(result.get(result.size() - 1).getTarget())) {
+            result.add(asc(id));
+        }
+
+        return result;
+    }
+
+    /**
+     * @return predicate selecting rows ordered after the given sort key values
+     */
+    public static Predicate seek(List<OrderSpecifier<?>> orderSpecifiers, Object[] values) {
+        if (orderSpecifiers.size() != values.length) {
+            throw new IllegalArgumentException("Cursor does not match the ordering, expected " + orderSpecifiers
+                    .size() + " values but got " + values.length);
+        }
+
+        BooleanBuilder seek = new BooleanBuilder();
+        for (int i = 0; i < orderSpecifiers.size(); i++) {
+            BooleanBuilder branch = new BooleanBuilder();
+            for (int j = 0; j < i; j++) {
+                branch.and(Expressions.booleanOperation(Ops.EQ, orderSpecifiers.get(j).getTarget(), Expressions
+                        .constant(values[j])));
+            }
+
+            OrderSpecifier<?> orderSpecifier = orderSpecifiers.get(i);
+            Ops op = orderSpecifier.isAscending() ? Ops.GT : Ops.LT;
+            branch.and(Expressions.booleanOperation(op, orderSpecifier.getTarget(), Expressions.constant
+                    (values[i])));
+
+            seek.or(branch);
+        }
+
+        return seek;
+    }
+
+    private static <T extends Comparable<?>> OrderSpecifier<T> asc(Expression<T> target) {
+        return new OrderSpecifier<>(Order.ASC, target);
+    }
+
+    public static String encode(Object[] values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(values.length);
+            for (Object value : values) {
+                if (value == null) {
+                    throw new IllegalStateException("Keyset pagination does not support null sort key values");
+                }
+                out.writeUTF(CONVERSION_SERVICE.convert(value, String.class));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return Base64Utils.encodeToUrlSafeString(bytes.toByteArray());
+    }
+
+    public static Object[] decode(String cursor, List<OrderSpecifier<?>> orderSpecifiers) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64Utils.decodeFromUrlSafeString
+                (cursor)))) {
+            int length = in.readInt();
+            if (length != orderSpecifiers.size()) {
+                throw new IllegalArgumentException("Cursor does not match the ordering, expected " + orderSpecifiers
+                        .size() + " values but got " + length);
+            }
+
+            Object[] values = new Object[length];
+            for (int i = 0; i < length; i++) {
+                Expression<?> target = orderSpecifiers.get(i).getTarget();
+                values[i] = CONVERSION_SERVICE.convert(in.readUTF(), target.getType());
+            }
+
+            return values;
+        } catch (IOException | IllegalArgumentException | ConversionException e) {
+            throw new IllegalArgumentException("Invalid cursor '" + cursor + "'", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package net.test.paging;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single page of a keyset (seek) pagination.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final Long totalElements;
+
+    public KeysetPage(List<T> content, String nextCursor, Long totalElements) {
+        this.content = Collections.unmodifiableList(content);
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    /**
+     * @return cursor pointing after the last row of this page, {@code null} if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * @return total number of rows matching the predicate, {@code null} if the count was not requested
+     */
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetPage{" + "numberOfElements=" + content.size() + ", nextCursor='" + nextCursor + '\'' + ", " +
+                "totalElements=" + totalElements + '}';
+    }
+}
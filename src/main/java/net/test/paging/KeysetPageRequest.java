@@ -0,0 +1,77 @@
+package net.test.paging;
+
+import com.querydsl.core.types.OrderSpecifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Request for a single keyset (seek) page.
+ * <p>
+ * Unlike {@link org.springframework.data.domain.PageRequest} there is no page number - the position is given by the
+ * cursor returned with the previous page ({@code null} for the first page). The count query is skipped unless
+ * explicitly requested.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class KeysetPageRequest {
+
+    private final int size;
+    private final String cursor;
+    private final List<OrderSpecifier<?>> orderSpecifiers;
+    private final boolean countRequested;
+
+    public KeysetPageRequest(int size, OrderSpecifier<?>... orderSpecifiers) {
+        this(size, null, Arrays.asList(orderSpecifiers), false);
+    }
+
+    public KeysetPageRequest(int size, String cursor, List<OrderSpecifier<?>> orderSpecifiers, boolean
+            countRequested) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one!");
+        }
+
+        this.size = size;
+        this.cursor = cursor;
+        this.orderSpecifiers = Collections.unmodifiableList(new ArrayList<>(orderSpecifiers));
+        this.countRequested = countRequested;
+    }
+
+    /**
+     * @return request for the page following the given one, with the same size, ordering and count setting
+     */
+    public KeysetPageRequest next(KeysetPage<?> page) {
+        return new KeysetPageRequest(size, page.getNextCursor(), orderSpecifiers, countRequested);
+    }
+
+    /**
+     * @return copy of this request that also executes the count query
+     */
+    public KeysetPageRequest withCount() {
+        return new KeysetPageRequest(size, cursor, orderSpecifiers, true);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public List<OrderSpecifier<?>> getOrderSpecifiers() {
+        return orderSpecifiers;
+    }
+
+    public boolean isCountRequested() {
+        return countRequested;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetPageRequest{" + "size=" + size + ", cursor='" + cursor + '\'' + ", orderSpecifiers=" +
+                orderSpecifiers + ", countRequested=" + countRequested + '}';
+    }
+}
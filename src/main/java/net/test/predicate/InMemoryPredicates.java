@@ -0,0 +1,513 @@
+package net.test.predicate;
+
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.PathType;
+import com.querydsl.core.types.Predicate;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates Querydsl predicates over objects in memory, with the same result as the JPQL query would have.
+ * <p>
+ * The predicate is compiled once into a tree of closures, properties are read by getters bound with
+ * {@link LambdaMetafactory} at compile time, so no reflection happens per object. Compiled predicates are stateless
+ * and can filter parallel streams.
+ * <p>
+ * Comparisons follow SQL three-valued logic - a comparison with {@code null} is unknown and only objects for which the
+ * predicate is true match. Predicates on {@code collection.any()} hold if some element matches, like the
+ * {@code exists} subquery Querydsl generates for them. Collections have to be initialized.
+ * <p>
+ * Supported are comparisons, {@code in}, {@code like} and the other string tests, {@code and}, {@code or},
+ * {@code not}, null and collection tests. Subqueries and templates are not, e.g.
+ * {@link PersonPredicates#nameContains(String)} - its index lookup exists in the database only.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class InMemoryPredicates {
+
+    private static final ConcurrentMap<String, Function<Object, Object>> GETTERS = new ConcurrentHashMap<>();
+
+    private InMemoryPredicates() {
+    }
+
+    /**
+     * @param root      path the predicate is built on, e.g. {@code QPerson.person}
+     * @param predicate filter, {@code null} or an empty {@link com.querydsl.core.BooleanBuilder} matches everything
+     * @return predicate over objects of the root type
+     * @throws UnsupportedOperationException if the predicate contains an expression that cannot be evaluated in memory
+     */
+    public static <T> java.util.function.Predicate<T> compile(EntityPath<T> root, Predicate predicate) {
+        Expression<?> expression = ExpressionUtils.extract(predicate);
+        if (expression == null) {
+            return object -> true;
+        }
+
+        Compiler compiler = new Compiler(root);
+        Evaluator evaluator = compiler.compile(expression, new HashMap<Path<?>, Integer>());
+        int frameSize = compiler.slots;
+
+        return object -> {
+            Object[] frame = new Object[frameSize];
+            frame[0] = object;
+            return Boolean.TRUE.equals(evaluator.evaluate(frame));
+        };
+    }
+
+    /**
+     * Compiled expression, reads the root object and the elements bound to {@code any()} paths from the frame.
+     */
+    private interface Evaluator {
+
+        Object evaluate(Object[] frame);
+    }
+
+    private static final class Compiler {
+
+        private final EntityPath<?> root;
+
+        // frame[0] is the root, any() paths get the following slots
+        private int slots = 1;
+
+        private Compiler(EntityPath<?> root) {
+            this.root = root;
+        }
+
+        private Evaluator compile(Expression<?> expression, Map<Path<?>, Integer> bound) {
+            if (expression instanceof Constant) {
+                Object constant = ((Constant<?>) expression).getConstant();
+                return frame -> constant;
+            }
+            if (expression instanceof Path) {
+                return path((Path<?>) expression, bound);
+            }
+            if (expression instanceof Operation) {
+                Operation<?> operation = (Operation<?>) expression;
+                if (Boolean.class.equals(operation.getType())) {
+                    return predicate(operation, bound);
+                }
+                return operation(operation, bound);
+            }
+            throw unsupported(expression);
+        }
+
+        private Evaluator path(Path<?> path, Map<Path<?>, Integer> bound) {
+            PathMetadata metadata = path.getMetadata();
+
+            if (metadata.getPathType() == PathType.VARIABLE) {
+                if (!path.equals(root)) {
+                    throw new IllegalArgumentException("Path " + path + " is not based on " + root);
+                }
+                return frame -> frame[0];
+            }
+            if (metadata.getPathType() == PathType.COLLECTION_ANY) {
+                Integer slot = bound.get(path);
+                if (slot == null) {
+                    throw unsupported(path);
+                }
+                return frame -> frame[slot];
+            }
+            if (metadata.getPathType() == PathType.DELEGATE) {
+                return compile(metadata.getParent(), bound);
+            }
+            if (metadata.getPathType() == PathType.PROPERTY) {
+                Evaluator parent = compile(metadata.getParent(), bound);
+                Function<Object, Object> getter = getter(metadata.getParent().getType(), metadata.getName());
+                return frame -> {
+                    Object owner = parent.evaluate(frame);
+                    return owner != null ? getter.apply(owner) : null;
+                };
+            }
+            throw unsupported(path);
+        }
+
+        /**
+         * Binds {@code any()} paths of the predicate's operands to elements of their collections, the innermost
+         * predicate holds if it holds for some elements.
+         */
+        private Evaluator predicate(Operation<?> operation, Map<Path<?>, Integer> bound) {
+            List<Path<?>> anyPaths = new ArrayList<>();
+            for (Expression<?> arg : operation.getArgs()) {
+                collectAnyPaths(arg, bound, anyPaths);
+            }
+            if (anyPaths.isEmpty()) {
+                return operation(operation, bound);
+            }
+
+            Map<Path<?>, Integer> inner = new HashMap<>(bound);
+            List<Evaluator> collections = new ArrayList<>();
+            int[] anySlots = new int[anyPaths.size()];
+            for (int i = 0; i < anySlots.length; i++) {
+                // outer any() paths are bound first, inner ones may navigate from them
+                collections.add(compile(anyPaths.get(i).getMetadata().getParent(), inner));
+                anySlots[i] = slots++;
+                inner.put(anyPaths.get(i), anySlots[i]);
+            }
+            Evaluator body = operation(operation, inner);
+
+            return frame -> exists(frame, collections, anySlots, 0, body);
+        }
+
+        private Evaluator operation(Operation<?> operation, Map<Path<?>, Integer> bound) {
+            Operator operator = operation.getOperator();
+            List<Evaluator> args = new ArrayList<>();
+            for (Expression<?> arg : operation.getArgs()) {
+                args.add(compile(arg, bound));
+            }
+
+            if (operator == Ops.AND) {
+                Evaluator left = args.get(0);
+                Evaluator right = args.get(1);
+                return frame -> and(left.evaluate(frame), right.evaluate(frame));
+            }
+            if (operator == Ops.OR) {
+                Evaluator left = args.get(0);
+                Evaluator right = args.get(1);
+                return frame -> or(left.evaluate(frame), right.evaluate(frame));
+            }
+            if (operator == Ops.NOT) {
+                Evaluator arg = args.get(0);
+                return frame -> not(arg.evaluate(frame));
+            }
+            if (operator == Ops.IS_NULL) {
+                Evaluator arg = args.get(0);
+                return frame -> arg.evaluate(frame) == null;
+            }
+            if (operator == Ops.IS_NOT_NULL) {
+                Evaluator arg = args.get(0);
+                return frame -> arg.evaluate(frame) != null;
+            }
+            if (operator == Ops.EQ || operator == Ops.NE) {
+                boolean negate = operator == Ops.NE;
+                return binary(args, (left, right) -> key(left).equals(key(right)) != negate);
+            }
+            if (operator == Ops.LT) {
+                return binary(args, (left, right) -> compare(left, right) < 0);
+            }
+            if (operator == Ops.LOE) {
+                return binary(args, (left, right) -> compare(left, right) <= 0);
+            }
+            if (operator == Ops.GT) {
+                return binary(args, (left, right) -> compare(left, right) > 0);
+            }
+            if (operator == Ops.GOE) {
+                return binary(args, (left, right) -> compare(left, right) >= 0);
+            }
+            if (operator == Ops.BETWEEN) {
+                Evaluator value = args.get(0);
+                Evaluator from = args.get(1);
+                Evaluator to = args.get(2);
+                return frame -> {
+                    Object left = value.evaluate(frame);
+                    return and(binary(left, from.evaluate(frame), (l, r) -> compare(l, r) >= 0), binary(left, to
+                            .evaluate(frame), (l, r) -> compare(l, r) <= 0));
+                };
+            }
+            if (operator == Ops.IN || operator == Ops.NOT_IN) {
+                return in(operation, args, operator == Ops.NOT_IN);
+            }
+            if (operator == Ops.COL_IS_EMPTY) {
+                Evaluator arg = args.get(0);
+                return frame -> {
+                    Collection<?> collection = (Collection<?>) arg.evaluate(frame);
+                    return collection == null || collection.isEmpty();
+                };
+            }
+            if (operator == Ops.COL_SIZE) {
+                Evaluator arg = args.get(0);
+                return frame -> {
+                    Collection<?> collection = (Collection<?>) arg.evaluate(frame);
+                    return collection != null ? collection.size() : 0;
+                };
+            }
+            if (operator == Ops.LIKE || operator == Ops.LIKE_IC || operator == Ops.LIKE_ESCAPE || operator == Ops
+                    .LIKE_ESCAPE_IC) {
+                return like(operation, args, operator == Ops.LIKE_IC || operator == Ops.LIKE_ESCAPE_IC);
+            }
+            if (operator == Ops.STARTS_WITH) {
+                return binary(args, (left, right) -> ((String) left).startsWith((String) right));
+            }
+            if (operator == Ops.STARTS_WITH_IC) {
+                return binary(args, (left, right) -> lower(left).startsWith(lower(right)));
+            }
+            if (operator == Ops.ENDS_WITH) {
+                return binary(args, (left, right) -> ((String) left).endsWith((String) right));
+            }
+            if (operator == Ops.ENDS_WITH_IC) {
+                return binary(args, (left, right) -> lower(left).endsWith(lower(right)));
+            }
+            if (operator == Ops.STRING_CONTAINS) {
+                return binary(args, (left, right) -> ((String) left).contains((String) right));
+            }
+            if (operator == Ops.STRING_CONTAINS_IC) {
+                return binary(args, (left, right) -> lower(left).contains(lower(right)));
+            }
+            if (operator == Ops.EQ_IGNORE_CASE) {
+                return binary(args, (left, right) -> lower(left).equals(lower(right)));
+            }
+            if (operator == Ops.STRING_IS_EMPTY) {
+                return unary(args, value -> ((String) value).isEmpty());
+            }
+            if (operator == Ops.STRING_LENGTH) {
+                return unary(args, value -> ((String) value).length());
+            }
+            if (operator == Ops.LOWER) {
+                return unary(args, InMemoryPredicates::lower);
+            }
+            if (operator == Ops.UPPER) {
+                return unary(args, value -> ((String) value).toUpperCase());
+            }
+            if (operator == Ops.TRIM) {
+                return unary(args, value -> ((String) value).trim());
+            }
+            if (operator == Ops.CONCAT) {
+                return binary(args, (left, right) -> left.toString() + right);
+            }
+            throw unsupported(operation);
+        }
+
+        private Evaluator in(Operation<?> operation, List<Evaluator> args, boolean negate) {
+            Evaluator value = args.get(0);
+            Expression<?> values = operation.getArg(1);
+
+            if (values instanceof Constant) {
+                Set<Object> keys = new HashSet<>();
+                for (Object constant : (Collection<?>) ((Constant<?>) values).getConstant()) {
+                    keys.add(key(constant));
+                }
+                return frame -> {
+                    Object left = value.evaluate(frame);
+                    return left != null ? keys.contains(key(left)) != negate : null;
+                };
+            }
+
+            // collection path, e.g. person.addresses.contains(address)
+            Evaluator collection = args.get(1);
+            return frame -> {
+                Object left = value.evaluate(frame);
+                if (left == null) {
+                    return null;
+                }
+                boolean found = false;
+                Collection<?> elements = (Collection<?>) collection.evaluate(frame);
+                if (elements != null) {
+                    for (Object element : elements) {
+                        found |= key(left).equals(key(element));
+                    }
+                }
+                return found != negate;
+            };
+        }
+
+        private Evaluator like(Operation<?> operation, List<Evaluator> args, boolean ignoreCase) {
+            Evaluator value = args.get(0);
+            Evaluator pattern = args.get(1);
+            char escape = 0;
+            if (args.size() > 2) {
+                escape = ((Constant<?>) operation.getArg(2)).getConstant().toString().charAt(0);
+            }
+
+            char escapeChar = escape;
+            if (operation.getArg(1) instanceof Constant) {
+                Pattern regex = likeToRegex((String) ((Constant<?>) operation.getArg(1)).getConstant(), escapeChar,
+                        ignoreCase);
+                return unary(args, left -> regex.matcher((String) left).matches());
+            }
+            return frame -> binary(value.evaluate(frame), pattern.evaluate(frame), (left, right) -> likeToRegex(
+                    (String) right, escapeChar, ignoreCase).matcher((String) left).matches());
+        }
+
+        private void collectAnyPaths(Expression<?> expression, Map<Path<?>, Integer> bound, List<Path<?>> anyPaths) {
+            if (expression instanceof Path) {
+                Path<?> path = (Path<?>) expression;
+                PathMetadata metadata = path.getMetadata();
+                if (metadata.getParent() != null) {
+                    collectAnyPaths(metadata.getParent(), bound, anyPaths);
+                }
+                if (metadata.getPathType() == PathType.COLLECTION_ANY && !bound.containsKey(path) && !anyPaths
+                        .contains(path)) {
+                    anyPaths.add(path);
+                }
+            } else if (expression instanceof Operation && !Boolean.class.equals(expression.getType())) {
+                // nested predicates bind their own any() paths
+                for (Expression<?> arg : ((Operation<?>) expression).getArgs()) {
+                    collectAnyPaths(arg, bound, anyPaths);
+                }
+            }
+        }
+    }
+
+    private interface BinaryFunction {
+
+        Object apply(Object left, Object right);
+    }
+
+    private static Evaluator unary(List<Evaluator> args, Function<Object, Object> function) {
+        Evaluator arg = args.get(0);
+        return frame -> {
+            Object value = arg.evaluate(frame);
+            return value != null ? function.apply(value) : null;
+        };
+    }
+
+    private static Evaluator binary(List<Evaluator> args, BinaryFunction function) {
+        Evaluator left = args.get(0);
+        Evaluator right = args.get(1);
+        return frame -> binary(left.evaluate(frame), right.evaluate(frame), function);
+    }
+
+    private static Object binary(Object left, Object right, BinaryFunction function) {
+        return left != null && right != null ? function.apply(left, right) : null;
+    }
+
+    private static Object exists(Object[] frame, List<Evaluator> collections, int[] slots, int index, Evaluator
+            body) {
+        if (index == slots.length) {
+            return Boolean.TRUE.equals(body.evaluate(frame));
+        }
+
+        Collection<?> elements = (Collection<?>) collections.get(index).evaluate(frame);
+        if (elements != null) {
+            for (Object element : elements) {
+                frame[slots[index]] = element;
+                if (Boolean.TRUE.equals(exists(frame, collections, slots, index + 1, body))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Object and(Object left, Object right) {
+        if (Boolean.FALSE.equals(left) || Boolean.FALSE.equals(right)) {
+            return false;
+        }
+        return left == null || right == null ? null : true;
+    }
+
+    private static Object or(Object left, Object right) {
+        if (Boolean.TRUE.equals(left) || Boolean.TRUE.equals(right)) {
+            return true;
+        }
+        return left == null || right == null ? null : false;
+    }
+
+    private static Object not(Object value) {
+        return value != null ? !(Boolean) value : null;
+    }
+
+    /**
+     * @return the value with numbers converted to a common type, so {@code 1} equals {@code 1L} as in SQL
+     */
+    private static Object key(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigDecimal || value instanceof BigInteger || value instanceof Double || value
+                instanceof Float) {
+            BigDecimal decimal = new BigDecimal(value.toString()).stripTrailingZeros();
+            try {
+                return decimal.longValueExact();
+            } catch (ArithmeticException e) {
+                return decimal;
+            }
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number && left.getClass() != right.getClass()) {
+            return new BigDecimal(left.toString()).compareTo(new BigDecimal(right.toString()));
+        }
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    private static String lower(Object value) {
+        return ((String) value).toLowerCase();
+    }
+
+    private static Pattern likeToRegex(String like, char escape, boolean ignoreCase) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (escape != 0 && c == escape && i + 1 < like.length()) {
+                regex.append(Pattern.quote(String.valueOf(like.charAt(++i))));
+            } else if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern
+                .UNICODE_CASE : 0));
+    }
+
+    /**
+     * @return getter of the property bound to a {@link Function}, the same one for every compiled predicate
+     */
+    private static Function<Object, Object> getter(Class<?> type, String property) {
+        String key = type.getName() + '.' + property;
+        Function<Object, Object> getter = GETTERS.get(key);
+        if (getter == null) {
+            getter = bindGetter(type, property);
+            Function<Object, Object> existing = GETTERS.putIfAbsent(key, getter);
+            if (existing != null) {
+                getter = existing;
+            }
+        }
+        return getter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> bindGetter(Class<?> type, String property) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, property);
+        if (descriptor == null || descriptor.getReadMethod() == null) {
+            throw new UnsupportedOperationException("No getter for " + type.getName() + "." + property);
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(descriptor.getReadMethod());
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class), handle, MethodType.methodType(ClassUtils
+                            .resolvePrimitiveIfNecessary(handle.type().returnType()), handle.type().parameterType(0)));
+            return (Function<Object, Object>) callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot bind getter of " + type.getName() + "." + property, e);
+        }
+    }
+
+    private static UnsupportedOperationException unsupported(Expression<?> expression) {
+        return new UnsupportedOperationException("Cannot evaluate " + expression + " in memory");
+    }
+}
@@ -1,9 +1,14 @@
 package net.test.predicate;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.jpa.JPAExpressions;
 import net.test.entity.QPerson;
+import net.test.entity.QPersonNameGram;
+import net.test.search.NameGrams;
 import org.springframework.util.StringUtils;
 
+import java.util.Set;
+
 /**
  * @author Zbynek Vavros (zbynek.vavros@i.cz)
  */
@@ -30,4 +35,44 @@ public class PersonPredicates extends AbstractPredicates {
 
         return booleanBuilder;
     }
+
+    /**
+     * Same as {@link #nameLike(String)}, but wildcards in the value are matched literally. Range scan of the
+     * {@code IDX_PERSON_NAME} index.
+     */
+    public static final BooleanBuilder nameStartsWith(String value) {
+
+        BooleanBuilder booleanBuilder = new BooleanBuilder();
+
+        if (StringUtils.hasText(value)) {
+            booleanBuilder.and(QPerson.person.name.startsWith(value));
+        }
+
+        return booleanBuilder;
+    }
+
+    /**
+     * Same as {@code name like '%value%'}, but persons having all trigrams of the value are looked up in the
+     * {@code PERSON_NAME_GRAM} index first and only their names are matched. Values shorter than a trigram are
+     * matched against all names.
+     */
+    public static final BooleanBuilder nameContains(String value) {
+
+        BooleanBuilder booleanBuilder = new BooleanBuilder();
+
+        if (StringUtils.hasText(value)) {
+            Set<String> grams = NameGrams.of(value);
+
+            if (!grams.isEmpty()) {
+                QPersonNameGram nameGram = QPersonNameGram.personNameGram;
+
+                booleanBuilder.and(QPerson.person.id.in(JPAExpressions.select(nameGram.personId).from(nameGram).where
+                        (nameGram.gram.in(grams)).groupBy(nameGram.personId).having(nameGram.count().eq((long) grams
+                        .size()))));
+            }
+            booleanBuilder.and(QPerson.person.name.contains(value));
+        }
+
+        return booleanBuilder;
+    }
 }
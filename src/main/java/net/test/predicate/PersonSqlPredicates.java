@@ -0,0 +1,49 @@
+package net.test.predicate;
+
+import com.querydsl.core.BooleanBuilder;
+import net.test.sql.SPerson;
+import org.springframework.util.StringUtils;
+
+/**
+ * Same filters as {@link PersonPredicates}, but of {@link SPerson#person} for {@link net.test.sql.PersonSqlRepository}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class PersonSqlPredicates extends AbstractPredicates {
+
+    public static final BooleanBuilder nameLike(String value) {
+
+        BooleanBuilder booleanBuilder = new BooleanBuilder();
+
+        if (StringUtils.hasText(value)) {
+            booleanBuilder.and(SPerson.person.name.like(like(value)));
+        }
+
+        return booleanBuilder;
+    }
+
+    public static final BooleanBuilder nameEquals(String value) {
+
+        BooleanBuilder booleanBuilder = new BooleanBuilder();
+
+        if (StringUtils.hasText(value)) {
+            booleanBuilder.and(SPerson.person.name.eq(value));
+        }
+
+        return booleanBuilder;
+    }
+
+    /**
+     * Same as {@link PersonPredicates#nameStartsWith(String)}.
+     */
+    public static final BooleanBuilder nameStartsWith(String value) {
+
+        BooleanBuilder booleanBuilder = new BooleanBuilder();
+
+        if (StringUtils.hasText(value)) {
+            booleanBuilder.and(SPerson.person.name.startsWith(value));
+        }
+
+        return booleanBuilder;
+    }
+}
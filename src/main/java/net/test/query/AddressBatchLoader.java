@@ -0,0 +1,122 @@
+package net.test.query;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QAddress;
+import net.test.entity.QPerson;
+import org.hibernate.Hibernate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads {@link Person#getAddresses()} of already fetched persons with one {@code person.id in (...)} query per chunk
+ * of persons.
+ * <p>
+ * Intended as the second phase after a (paged) person query - unlike {@code fetchJoin()} it does not multiply the
+ * person rows, so paging still works, and unlike lazy loading it does not issue a query per person. Only persons with
+ * an uninitialized collection are loaded, persons may be managed or detached.
+ * <p>
+ * {@link #load(EntityManager, Iterable, Predicate)} selects the addresses with the person query as a subquery
+ * instead, one statement for any number of persons.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class AddressBatchLoader {
+
+    private final int chunkSize;
+
+    public AddressBatchLoader(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive!");
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    public void load(EntityManager entityManager, Iterable<Person> persons) {
+        Map<Long, Person> byId = uninitialized(persons);
+        if (byId.isEmpty()) {
+            return;
+        }
+
+        JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+        QAddress address = QAddress.address;
+        QPerson person = QPerson.person;
+
+        List<Address> loaded = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+
+            // fetch join the (eager) owner, otherwise it is selected once per address
+            loaded.addAll(jpaQueryFactory.selectFrom(address).innerJoin(address.person, person).fetchJoin().where
+                    (person.id.in(chunk)).fetch());
+        }
+
+        assign(byId, loaded);
+    }
+
+    /**
+     * Same as {@link #load(EntityManager, Iterable)}, but the addresses are selected for persons matching the
+     * predicate the persons were queried with. Addresses of matching persons not among the given ones are skipped.
+     *
+     * @param predicate filter of {@link QPerson#person} the persons were queried with, may be {@code null}
+     */
+    public void load(EntityManager entityManager, Iterable<Person> persons, Predicate predicate) {
+        Map<Long, Person> byId = uninitialized(persons);
+        if (byId.isEmpty()) {
+            return;
+        }
+
+        QAddress address = QAddress.address;
+        // the predicate uses QPerson.person, the owner needs another alias
+        QPerson owner = new QPerson("owner");
+
+        assign(byId, new JPAQueryFactory(entityManager).selectFrom(address).innerJoin(address.person, owner)
+                .fetchJoin().where(owner.id.in(JPAExpressions.select(QPerson.person.id).from(QPerson.person).where
+                        (predicate))).fetch());
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private static Map<Long, Person> uninitialized(Iterable<Person> persons) {
+        Map<Long, Person> byId = new LinkedHashMap<>();
+        for (Person person : persons) {
+            if (person.getId() != null && !Hibernate.isInitialized(person.getAddresses())) {
+                byId.put(person.getId(), person);
+            }
+        }
+        return byId;
+    }
+
+    private static void assign(Map<Long, Person> byId, List<Address> loaded) {
+        Map<Long, Set<Address>> addresses = new LinkedHashMap<>();
+        for (Long id : byId.keySet()) {
+            addresses.put(id, new HashSet<Address>());
+        }
+
+        for (Address loadedAddress : loaded) {
+            Long personId = loadedAddress.getPerson().getId();
+            Set<Address> personAddresses = addresses.get(personId);
+            if (personAddresses != null) {
+                loadedAddress.setPerson(byId.get(personId));
+                personAddresses.add(loadedAddress);
+            }
+        }
+
+        for (Map.Entry<Long, Set<Address>> entry : addresses.entrySet()) {
+            byId.get(entry.getKey()).setAddresses(entry.getValue());
+        }
+    }
+}
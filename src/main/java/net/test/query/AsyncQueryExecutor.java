@@ -0,0 +1,97 @@
+package net.test.query;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking queries asynchronously, at most {@code maxConcurrency} of them at a time.
+ * <p>
+ * On a JDK with virtual threads (21+) every query gets its own virtual thread, queries over the limit wait for a
+ * permit without holding a platform thread. Otherwise a pool of {@code maxConcurrency} platform threads is used and
+ * queries over the limit wait in its queue. Either way callers are not blocked, and the limit should match the
+ * connection pool so waiting happens here rather than in the pool.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class AsyncQueryExecutor {
+
+    private final int maxConcurrency;
+    private final boolean virtualThreads;
+    private final ExecutorService executorService;
+    private final Semaphore permits;
+
+    /**
+     * @param maxConcurrency    maximum number of queries running at the same time
+     * @param useVirtualThreads use virtual threads when the JDK supports them
+     */
+    public AsyncQueryExecutor(int maxConcurrency, boolean useVirtualThreads) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be positive!");
+        }
+
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+
+        ExecutorService virtualThreadExecutor = useVirtualThreads ? newVirtualThreadPerTaskExecutor() : null;
+        this.virtualThreads = virtualThreadExecutor != null;
+        if (virtualThreads) {
+            this.executorService = virtualThreadExecutor;
+        } else {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("async-query-");
+            threadFactory.setDaemon(true);
+            this.executorService = Executors.newFixedThreadPool(maxConcurrency, threadFactory);
+        }
+    }
+
+    /**
+     * @return future completed with the query result, or exceptionally with the exception the query threw
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return query.get();
+            } finally {
+                permits.release();
+            }
+        }, executorService);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return {@code true} if queries run on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stops accepting queries, called by Spring when the context is closed.
+     */
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    /**
+     * @return {@code Executors.newVirtualThreadPerTaskExecutor()}, {@code null} before JDK 21
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+}
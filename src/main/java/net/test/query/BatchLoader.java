@@ -0,0 +1,113 @@
+package net.test.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Coalesces single key lookups into batches, like DataLoader. Intended to live as long as one request or unit of
+ * work and then be dropped - results are kept per key, so a key is looked up at most once, and later changes are not
+ * seen.
+ * <p>
+ * {@link #load(Object)} only registers the key, {@link #dispatch()} looks up all registered keys with one batch.
+ * {@link #get(Object)} dispatches itself - threads calling it while a batch runs wait for it to finish and their keys
+ * are looked up together by the next batch, so concurrent single lookups cost a batch each, not a query each.
+ * <p>
+ * Thread safe. Batches run in the dispatching thread, results are shared by all callers of the same key.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class BatchLoader<K, T> {
+
+    private final Function<Collection<K>, LookupResult<K, T>> batch;
+
+    private final Map<K, CompletableFuture<List<T>>> futures = new ConcurrentHashMap<>();
+    private final Queue<K> pending = new ConcurrentLinkedQueue<>();
+    private final Object dispatchLock = new Object();
+
+    /**
+     * @param batch results of distinct keys, e.g. {@link BatchLookup#fetch}
+     */
+    public BatchLoader(Function<Collection<K>, LookupResult<K, T>> batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * @return future completed with results of the key by a later {@link #dispatch()}, empty if the key is missing
+     */
+    public CompletableFuture<List<T>> load(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key must not be null!");
+        }
+
+        return futures.computeIfAbsent(key, k -> {
+            pending.add(k);
+            return new CompletableFuture<>();
+        });
+    }
+
+    /**
+     * Registers the key and dispatches unless another thread already looked it up.
+     *
+     * @return results of the key, empty if the key is missing
+     */
+    public List<T> get(K key) {
+        CompletableFuture<List<T>> future = load(key);
+        if (!future.isDone()) {
+            dispatch();
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up all registered keys with one batch. When the batch fails, its futures are completed exceptionally
+     * and its keys are forgotten, loading them again retries.
+     */
+    public void dispatch() {
+        synchronized (dispatchLock) {
+            List<K> keys = new ArrayList<>();
+            for (K key = pending.poll(); key != null; key = pending.poll()) {
+                keys.add(key);
+            }
+            if (keys.isEmpty()) {
+                return;
+            }
+
+            LookupResult<K, T> result;
+            try {
+                result = batch.apply(keys);
+            } catch (RuntimeException e) {
+                for (K key : keys) {
+                    futures.remove(key).completeExceptionally(e);
+                }
+                return;
+            }
+
+            for (K key : keys) {
+                futures.get(key).complete(result.get(key));
+            }
+        }
+    }
+
+    /**
+     * @return number of keys registered and not dispatched yet
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,94 @@
+package net.test.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Looks up results for many keys with one {@code in (...)} query per chunk of keys instead of a query per key.
+ * <p>
+ * Keys are deduplicated and chunked so a query binds at most {@code maxParameters} parameters - drivers and databases
+ * limit them (Oracle to 1000 list elements, SQL Server to 2100 parameters), and long lists are rarely planned better
+ * than a few shorter ones. A short chunk is padded to the next power of two by repeating its last key, so the
+ * queries come in a few shapes and their JPQL and SQL are parsed once, not once per number of keys.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class BatchLookup {
+
+    private final int maxParameters;
+
+    public BatchLookup(int maxParameters) {
+        if (maxParameters < 1) {
+            throw new IllegalArgumentException("Max parameters must be positive!");
+        }
+
+        this.maxParameters = maxParameters;
+    }
+
+    /**
+     * @param keys             keys to look up, duplicates are looked up once
+     * @param parametersPerKey parameters a key binds in the query, e.g. {@code 2} for a (name, surname) pair
+     * @param query            results of a chunk of distinct keys
+     * @param keyOf            key of a result, results of keys not requested are skipped
+     * @return results by key, in the order the keys were first requested
+     */
+    public <K, T> LookupResult<K, T> fetch(Collection<? extends K> keys, int parametersPerKey, Function<List<K>,
+            List<T>> query, Function<? super T, ? extends K> keyOf) {
+        Map<K, List<T>> results = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("Keys must not contain null!");
+            }
+            results.computeIfAbsent(key, k -> new ArrayList<>(1));
+        }
+
+        List<K> distinct = new ArrayList<>(results.keySet());
+        int chunkSize = chunkSize(parametersPerKey);
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<K> chunk = padded(distinct.subList(from, Math.min(from + chunkSize, distinct.size())), chunkSize);
+
+            for (T result : query.apply(Collections.unmodifiableList(chunk))) {
+                List<T> keyResults = results.get(keyOf.apply(result));
+                if (keyResults != null) {
+                    keyResults.add(result);
+                }
+            }
+        }
+
+        return new LookupResult<>(results);
+    }
+
+    /**
+     * @return number of keys in one query, at least one
+     */
+    public int chunkSize(int parametersPerKey) {
+        if (parametersPerKey < 1) {
+            throw new IllegalArgumentException("Parameters per key must be positive!");
+        }
+
+        return Math.max(1, maxParameters / parametersPerKey);
+    }
+
+    private static <K> List<K> padded(List<K> chunk, int chunkSize) {
+        int size = Math.min(Integer.highestOneBit(chunk.size() - 1) << 1, chunkSize);
+        if (chunk.size() <= 1 || size <= chunk.size()) {
+            return chunk;
+        }
+
+        List<K> padded = new ArrayList<>(size);
+        padded.addAll(chunk);
+        while (padded.size() < size) {
+            padded.add(chunk.get(chunk.size() - 1));
+        }
+        return padded;
+    }
+
+    public int getMaxParameters() {
+        return maxParameters;
+    }
+}
@@ -0,0 +1,35 @@
+package net.test.query;
+
+import com.querydsl.core.types.dsl.Param;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * {@link PreparedQuery} of a {@link QueryShape} together with the params to bind the shape constants to.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+final class CompiledQuery<T> {
+
+    private final PreparedQuery<T> query;
+    private final List<Param<?>> params;
+
+    CompiledQuery(PreparedQuery<T> query, List<Param<?>> params) {
+        this.query = query;
+        this.params = params;
+    }
+
+    String getJpql() {
+        return query.getJpql();
+    }
+
+    @SuppressWarnings("unchecked")
+    List<T> fetch(EntityManager entityManager, List<Object> constants) {
+        PreparedQuery.Bindings<T> bindings = query.bindings();
+        for (int i = 0; i < params.size(); i++) {
+            bindings.bind((Param<Object>) params.get(i), constants.get(i));
+        }
+        return bindings.fetch(entityManager);
+    }
+}
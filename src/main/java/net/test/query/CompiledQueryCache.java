@@ -0,0 +1,123 @@
+package net.test.query;
+
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of serialized JPQL keyed by the {@link QueryShape} of the predicate rather than by its values.
+ * <p>
+ * On a miss the predicate constants are replaced by parameters and the query is serialized once. On a hit the cached
+ * JPQL is used as is and only the constants are bound, so neither Querydsl serialization nor Hibernate HQL parsing is
+ * repeated (Hibernate caches query plans by the JPQL string, see {@code hibernate.query.plan_cache_max_size}).
+ * <p>
+ * Once {@code maxSize} shapes are cached, new shapes are executed without caching.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class CompiledQueryCache {
+
+    private final ConcurrentMap<String, CompiledQuery<?>> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong uncacheableCount = new AtomicLong();
+
+    // reserved and used slots
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final int maxSize;
+
+    public CompiledQueryCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return entities of {@code root} type matching the predicate
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> fetch(EntityManager entityManager, EntityPath<T> root, Predicate predicate) {
+        predicate = (Predicate) ExpressionUtils.extract(predicate);
+
+        QueryShape shape = QueryShape.of(root, predicate);
+        if (!shape.isCacheable()) {
+            uncacheableCount.incrementAndGet();
+            return new JPAQuery<T>(entityManager).select(root).from(root).where(predicate).fetch();
+        }
+
+        CompiledQuery<T> compiledQuery = (CompiledQuery<T>) cache.get(shape.getKey());
+        if (compiledQuery != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+            compiledQuery = compile(root, predicate);
+            // a slot is reserved before the put, so concurrent misses cannot grow the cache past maxSize
+            if (size.incrementAndGet() > maxSize || cache.putIfAbsent(shape.getKey(), compiledQuery) != null) {
+                size.decrementAndGet();
+            }
+        }
+
+        return compiledQuery.fetch(entityManager, shape.getConstants());
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getUncacheableCount() {
+        return uncacheableCount.get();
+    }
+
+    public int getSize() {
+        return cache.size();
+    }
+
+    public void clear() {
+        for (String key : cache.keySet()) {
+            if (cache.remove(key) != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private <T> CompiledQuery<T> compile(EntityPath<T> root, Predicate predicate) {
+        final List<Param<?>> params = new ArrayList<>();
+
+        if (predicate != null) {
+            predicate = (Predicate) predicate.accept(new ReplaceVisitor<Void>() {
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Expression<?> visit(Constant<?> expr, Void context) {
+                    if (!QueryShape.isBindable(expr.getConstant())) {
+                        return expr;
+                    }
+
+                    Param<?> param = new Param<>((Class<Object>) expr.getType(), "p" + params.size());
+                    params.add(param);
+                    return param;
+                }
+            }, null);
+        }
+
+        return new CompiledQuery<>(PreparedQuery.of(new JPAQuery<T>().select(root).from(root).where(predicate)),
+                params);
+    }
+}
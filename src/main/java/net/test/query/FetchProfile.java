@@ -0,0 +1,73 @@
+package net.test.query;
+
+/**
+ * Named entity graph ({@link javax.persistence.NamedEntityGraph}) to load with a query, and optionally the strategy
+ * to load it with. Without a strategy it is chosen by the query:
+ * <ul>
+ * <li>{@link FetchStrategy#JOIN} for a single result,</li>
+ * <li>{@link FetchStrategy#BATCH} for a page or a result not larger than one batch,</li>
+ * <li>{@link FetchStrategy#SUBSELECT} for larger results.</li>
+ * </ul>
+ * Collections not in the graph stay lazy.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class FetchProfile {
+
+    private final String graphName;
+    private final FetchStrategy strategy;
+
+    private FetchProfile(String graphName, FetchStrategy strategy) {
+        if (graphName == null) {
+            throw new IllegalArgumentException("Graph name must not be null!");
+        }
+
+        this.graphName = graphName;
+        this.strategy = strategy;
+    }
+
+    public static FetchProfile of(String graphName) {
+        return new FetchProfile(graphName, null);
+    }
+
+    /**
+     * @return copy of this profile always loaded with the given strategy, only {@link FetchStrategy#BATCH} can be
+     * used with pages
+     */
+    public FetchProfile using(FetchStrategy strategy) {
+        return new FetchProfile(graphName, strategy);
+    }
+
+    public String getGraphName() {
+        return graphName;
+    }
+
+    /**
+     * @return forced strategy, {@code null} if chosen by the query
+     */
+    public FetchStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @param paged     whether the query is limited to a page
+     * @param size      number of roots the query returned
+     * @param batchSize number of roots loaded by one {@link FetchStrategy#BATCH} statement
+     * @return strategy for the collections of a query returning more than a single result
+     */
+    public FetchStrategy strategyFor(boolean paged, int size, int batchSize) {
+        if (strategy != null) {
+            // a join repeats the root rows, a subselect would load the collections of all roots, not just the page
+            if (paged && strategy != FetchStrategy.BATCH) {
+                throw new IllegalArgumentException(strategy + " fetch of " + graphName + " cannot be paged!");
+            }
+            return strategy;
+        }
+        return paged || size <= batchSize ? FetchStrategy.BATCH : FetchStrategy.SUBSELECT;
+    }
+
+    @Override
+    public String toString() {
+        return "FetchProfile{" + "graphName='" + graphName + '\'' + ", strategy=" + strategy + '}';
+    }
+}
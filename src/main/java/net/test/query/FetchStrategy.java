@@ -0,0 +1,26 @@
+package net.test.query;
+
+/**
+ * How the collections of a {@link FetchProfile} are loaded.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public enum FetchStrategy {
+
+    /**
+     * {@code left join fetch} in the query itself - one statement, but the root rows are repeated per collection
+     * element, so it cannot be paged.
+     */
+    JOIN,
+
+    /**
+     * Second statement selecting the collections of roots matching the same predicate in a subquery - one statement
+     * regardless of the number of roots. The subquery is not limited to a page, so it cannot be paged either.
+     */
+    SUBSELECT,
+
+    /**
+     * Second statement selecting the collections by root ids, one per chunk of ids, see {@link AddressBatchLoader}.
+     */
+    BATCH
+}
@@ -0,0 +1,85 @@
+package net.test.query;
+
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Results of a {@link BatchLookup} by requested key, in the order the keys were requested. Every requested key is
+ * present, keys without results are mapped to an empty list and also reported by {@link #getMissing()}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class LookupResult<K, T> {
+
+    private final Map<K, List<T>> results;
+    private final Set<K> missing;
+
+    public LookupResult(Map<K, List<T>> results) {
+        Map<K, List<T>> unmodifiable = new LinkedHashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        for (Map.Entry<K, List<T>> entry : results.entrySet()) {
+            unmodifiable.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            if (entry.getValue().isEmpty()) {
+                missing.add(entry.getKey());
+            }
+        }
+
+        this.results = Collections.unmodifiableMap(unmodifiable);
+        this.missing = Collections.unmodifiableSet(missing);
+    }
+
+    /**
+     * @return results of the key, empty if the key is missing
+     * @throws IllegalArgumentException if the key was not requested
+     */
+    public List<T> get(K key) {
+        List<T> result = results.get(key);
+        if (result == null) {
+            throw new IllegalArgumentException("Key " + key + " was not requested!");
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #get(Object)} for unique keys, like {@code findOne}.
+     *
+     * @return the only result of the key, {@code null} if the key is missing
+     * @throws IncorrectResultSizeDataAccessException if the key has more results
+     */
+    public T getOne(K key) {
+        List<T> result = get(key);
+        if (result.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, result.size());
+        }
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    public boolean isMissing(K key) {
+        return get(key).isEmpty();
+    }
+
+    /**
+     * @return requested keys without results
+     */
+    public Set<K> getMissing() {
+        return missing;
+    }
+
+    /**
+     * @return results by requested key, missing keys are mapped to an empty list
+     */
+    public Map<K, List<T>> asMap() {
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        return "LookupResult{" + "keys=" + results.size() + ", missing=" + missing + '}';
+    }
+}
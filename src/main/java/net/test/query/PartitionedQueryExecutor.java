@@ -0,0 +1,279 @@
+package net.test.query;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a query split into id ranges in parallel.
+ * <p>
+ * The {@code min}/{@code max} id of matching rows is probed first and split into one range per worker. Every range is
+ * queried on a worker thread with its own {@link EntityManager} (and so its own connection), the results are merged.
+ * Ranges are equally wide, ids with large gaps make the partitions uneven.
+ * <p>
+ * Without an ordering the partitions are concatenated in id range order. With an ordering every partition is sorted
+ * by the database and the sorted partitions are merged by the sort key values, which are compared by their natural
+ * order - it has to match the database collation.
+ * <p>
+ * Returned entities are detached. Partitions run in separate transactions, they do not share a snapshot.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class PartitionedQueryExecutor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final int workers;
+    private final ExecutorService executorService;
+
+    public PartitionedQueryExecutor(EntityManagerFactory entityManagerFactory, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive!");
+        }
+
+        this.entityManagerFactory = entityManagerFactory;
+        this.workers = workers;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("partitioned-query-");
+        threadFactory.setDaemon(true);
+        this.executorService = Executors.newFixedThreadPool(workers, threadFactory);
+    }
+
+    /**
+     * @param root            queried entity
+     * @param id              numeric id of the entity the ranges are built on
+     * @param predicate       filter, may be {@code null}
+     * @param orderSpecifiers ordering of the merged result, may be empty
+     * @return entities of {@code root} type matching the predicate
+     */
+    public <T> List<T> fetch(EntityPath<T> root, NumberPath<Long> id, Predicate predicate, List<OrderSpecifier<?>>
+            orderSpecifiers) {
+        Tuple range = probe(root, id, predicate);
+        Long min = range.get(0, Long.class);
+        Long max = range.get(1, Long.class);
+        if (min == null) {
+            return Collections.emptyList();
+        }
+
+        // select the sort key next to the entity so partitions can be merged
+        Expression<?>[] projection = new Expression<?>[orderSpecifiers.size() + 1];
+        projection[0] = root;
+        for (int i = 0; i < orderSpecifiers.size(); i++) {
+            projection[i + 1] = orderSpecifiers.get(i).getTarget();
+        }
+
+        long span = max - min + 1;
+        int partitions = (int) Math.min(workers, span);
+        List<Callable<List<Tuple>>> tasks = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            long from = min + span / partitions * i + Math.min(i, span % partitions);
+            long to = min + span / partitions * (i + 1) + Math.min(i + 1, span % partitions);
+            tasks.add(new PartitionTask(entityManagerFactory, root, projection, predicate, id.goe(from).and(id.lt
+                    (to)), orderSpecifiers));
+        }
+
+        List<List<Tuple>> results = invokeAll(tasks);
+
+        return orderSpecifiers.isEmpty() ? concat(root, results) : merge(root, results, orderSpecifiers);
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Stops the worker threads, called by Spring when the context is closed.
+     */
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    private Tuple probe(EntityPath<?> root, NumberPath<Long> id, Predicate predicate) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return new JPAQuery<Void>(entityManager).select(id.min(), id.max()).from(root).where(predicate)
+                    .fetchOne();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private List<List<Tuple>> invokeAll(List<Callable<List<Tuple>>> tasks) {
+        try {
+            List<List<Tuple>> results = new ArrayList<>(tasks.size());
+            for (Future<List<Tuple>> future : executorService.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for partitions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static <T> List<T> concat(EntityPath<T> root, List<List<Tuple>> partitions) {
+        int size = 0;
+        for (List<Tuple> partition : partitions) {
+            size += partition.size();
+        }
+
+        List<T> result = new ArrayList<>(size);
+        for (List<Tuple> partition : partitions) {
+            for (Tuple row : partition) {
+                result.add(row.get(root));
+            }
+        }
+        return result;
+    }
+
+    private static <T> List<T> merge(EntityPath<T> root, List<List<Tuple>> partitions, List<OrderSpecifier<?>>
+            orderSpecifiers) {
+        final Comparator<Tuple> comparator = new SortKeyComparator(orderSpecifiers);
+        PriorityQueue<PartitionCursor> heads = new PriorityQueue<>(partitions.size(), new
+                Comparator<PartitionCursor>() {
+
+            @Override
+            public int compare(PartitionCursor o1, PartitionCursor o2) {
+                return comparator.compare(o1.current(), o2.current());
+            }
+        });
+
+        int size = 0;
+        for (List<Tuple> partition : partitions) {
+            size += partition.size();
+            if (!partition.isEmpty()) {
+                heads.add(new PartitionCursor(partition));
+            }
+        }
+
+        List<T> result = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            PartitionCursor head = heads.poll();
+            result.add(head.current().get(root));
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    private static class PartitionTask implements Callable<List<Tuple>> {
+
+        private final EntityManagerFactory entityManagerFactory;
+        private final EntityPath<?> root;
+        private final Expression<?>[] projection;
+        private final Predicate predicate;
+        private final Predicate range;
+        private final List<OrderSpecifier<?>> orderSpecifiers;
+
+        PartitionTask(EntityManagerFactory entityManagerFactory, EntityPath<?> root, Expression<?>[] projection,
+                      Predicate predicate, Predicate range, List<OrderSpecifier<?>> orderSpecifiers) {
+            this.entityManagerFactory = entityManagerFactory;
+            this.root = root;
+            this.projection = projection;
+            this.predicate = predicate;
+            this.range = range;
+            this.orderSpecifiers = orderSpecifiers;
+        }
+
+        @Override
+        public List<Tuple> call() {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                return new JPAQuery<Void>(entityManager).select(projection).from(root).where(predicate, range)
+                        .orderBy(orderSpecifiers.toArray(new OrderSpecifier<?>[orderSpecifiers.size()])).setHint
+                                (QueryHints.HINT_READONLY, true).fetch();
+            } finally {
+                entityManager.close();
+            }
+        }
+    }
+
+    private static class PartitionCursor {
+
+        private final List<Tuple> rows;
+        private int index;
+
+        PartitionCursor(List<Tuple> rows) {
+            this.rows = rows;
+        }
+
+        Tuple current() {
+            return rows.get(index);
+        }
+
+        boolean advance() {
+            return ++index < rows.size();
+        }
+    }
+
+    /**
+     * Compares rows by the sort key following the entity, {@code null} is the lowest value unless the null handling
+     * says otherwise.
+     */
+    private static class SortKeyComparator implements Comparator<Tuple> {
+
+        private final List<OrderSpecifier<?>> orderSpecifiers;
+
+        SortKeyComparator(List<OrderSpecifier<?>> orderSpecifiers) {
+            this.orderSpecifiers = orderSpecifiers;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public int compare(Tuple o1, Tuple o2) {
+            for (int i = 0; i < orderSpecifiers.size(); i++) {
+                OrderSpecifier<?> orderSpecifier = orderSpecifiers.get(i);
+                Object value1 = o1.get(i + 1, Object.class);
+                Object value2 = o2.get(i + 1, Object.class);
+
+                int result;
+                if (value1 == null || value2 == null) {
+                    if (value1 == value2) {
+                        continue;
+                    }
+                    result = value1 == null ? -1 : 1;
+                    if (orderSpecifier.getNullHandling() == OrderSpecifier.NullHandling.NullsFirst) {
+                        return result;
+                    }
+                    if (orderSpecifier.getNullHandling() == OrderSpecifier.NullHandling.NullsLast) {
+                        return -result;
+                    }
+                } else {
+                    result = ((Comparable) value1).compareTo(value2);
+                }
+
+                if (result != 0) {
+                    return orderSpecifier.isAscending() ? result : -result;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.test.query;
+
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Access to the entities managed by the current persistence context.
+ * <p>
+ * Bulk JPQL statements bypass the persistence context, these helpers let callers find the managed entities a bulk
+ * statement affected without loading anything from the database.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class PersistenceContexts {
+
+    private PersistenceContexts() {
+    }
+
+    /**
+     * @return managed entities of the given type, never proxies
+     */
+    public static <T> List<T> managedEntities(EntityManager entityManager, Class<T> type) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+
+        List<T> result = new ArrayList<>();
+        for (Object entity : session.getPersistenceContext().getEntitiesByKey().values()) {
+            if (type.isInstance(entity)) {
+                result.add(type.cast(entity));
+            }
+        }
+        return result;
+    }
+}
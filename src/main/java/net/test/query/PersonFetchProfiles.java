@@ -0,0 +1,25 @@
+package net.test.query;
+
+import net.test.entity.Person;
+
+/**
+ * Fetch profiles of {@link Person} per use case, for the {@code PersonRepository} methods taking a
+ * {@link FetchProfile}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class PersonFetchProfiles {
+
+    /**
+     * Lists and search results - the person only, addresses stay lazy.
+     */
+    public static final FetchProfile SUMMARY = FetchProfile.of(Person.GRAPH_SUMMARY);
+
+    /**
+     * Detail views and exports - the person with all addresses.
+     */
+    public static final FetchProfile WITH_ADDRESSES = FetchProfile.of(Person.GRAPH_WITH_ADDRESSES);
+
+    private PersonFetchProfiles() {
+    }
+}
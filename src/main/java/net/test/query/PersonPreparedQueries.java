@@ -0,0 +1,38 @@
+package net.test.query;
+
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPAExpressions;
+import net.test.dto.PersonDTO;
+import net.test.dto.PersonDTOProjection;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+
+/**
+ * Prepared {@link Person} queries of hot paths, executed by {@code PersonRepository.fetch(...)} with values bound to
+ * the params of this class, e.g. {@code BY_NAME.bind(NAME, name)}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class PersonPreparedQueries {
+
+    public static final Param<String> NAME = new Param<>(String.class, "name");
+    public static final Param<String> SURNAME = new Param<>(String.class, "surname");
+
+    /**
+     * Same as {@code findAll(nameEquals(name))}.
+     */
+    public static final PreparedQuery<Person> BY_NAME = PreparedQuery.of(JPAExpressions.selectFrom(QPerson.person)
+            .where(QPerson.person.name.eq(NAME)));
+
+    public static final PreparedQuery<Person> BY_NAME_AND_SURNAME = PreparedQuery.of(JPAExpressions.selectFrom(QPerson
+            .person).where(QPerson.person.name.eq(NAME), QPerson.person.surname.eq(SURNAME)));
+
+    /**
+     * Same as {@code findAllAsDto(nameEquals(name))}, no entities are created.
+     */
+    public static final PreparedQuery<PersonDTO> DTO_BY_NAME = PreparedQuery.of(JPAExpressions.select
+            (PersonDTOProjection.PERSON_DTO).from(QPerson.person).where(QPerson.person.name.eq(NAME)));
+
+    private PersonPreparedQueries() {
+    }
+}
@@ -0,0 +1,183 @@
+package net.test.query;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAUtil;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Querydsl query with {@link Param} placeholders instead of values, serialized to JPQL once and executed many times
+ * with values bound per execution, e.g.
+ * <pre>
+ * PreparedQuery&lt;Person&gt; byName = PreparedQuery.of(JPAExpressions.selectFrom(person).where(person.name.eq(NAME)));
+ * List&lt;Person&gt; persons = byName.bind(NAME, "John").fetch(entityManager);
+ * </pre>
+ * A query rebuilt per call with the value baked in is serialized again on every call. A prepared query skips that,
+ * its JPQL string is the same every time, so Hibernate serves the HQL parse from its query plan cache, and its SQL is
+ * the same every time, so the statement cache of the connection pool hands out the already prepared statement (see
+ * {@code spring.datasource.tomcat.jdbc-interceptors}).
+ * <p>
+ * Immutable and thread safe, intended to be defined once in a constant, see {@link PersonPreparedQueries}. The JPQL
+ * is serialized on the first execution. {@link Bindings} are created per execution and not shared.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class PreparedQuery<T> {
+
+    private final QueryMetadata metadata;
+
+    private volatile Compiled compiled;
+
+    private PreparedQuery(QueryMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    /**
+     * @param query e.g. {@code JPAExpressions.selectFrom(...)} or a {@code JPAQuery} without an entity manager,
+     *              later changes of it are not seen
+     */
+    public static <T> PreparedQuery<T> of(SubQueryExpression<T> query) {
+        return new PreparedQuery<>(query.getMetadata().clone());
+    }
+
+    public <P> Bindings<T> bind(Param<P> param, P value) {
+        return bindings().bind(param, value);
+    }
+
+    /**
+     * @return no values bound yet
+     */
+    public Bindings<T> bindings() {
+        return new Bindings<>(this);
+    }
+
+    /**
+     * Same as {@code bindings().fetch(entityManager)}, for queries without parameters.
+     */
+    public List<T> fetch(EntityManager entityManager) {
+        return bindings().fetch(entityManager);
+    }
+
+    /**
+     * @return the JPQL, {@code null} before the first execution
+     */
+    public String getJpql() {
+        Compiled current = compiled;
+        return current != null ? current.jpql : null;
+    }
+
+    private Compiled compile(EntityManager entityManager) {
+        Compiled current = compiled;
+        // compiled by racing threads at most a few times, the results are equal
+        if (current == null) {
+            JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(entityManager), entityManager);
+            serializer.serialize(metadata, false, null);
+            current = new Compiled(serializer.toString(), serializer.getConstantToLabel());
+            compiled = current;
+        }
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> execute(EntityManager entityManager, Map<ParamExpression<?>, Object> values, int maxResults) {
+        Compiled current = compile(entityManager);
+        for (ParamExpression<?> param : values.keySet()) {
+            if (!current.constantToLabel.containsKey(param)) {
+                throw new IllegalArgumentException("Param " + param.getName() + " is not part of the query!");
+            }
+        }
+
+        Query query = entityManager.createQuery(current.jpql);
+        // constants of the query are bound too, params without a value fail with ParamNotSetException
+        JPAUtil.setConstants(query, current.constantToLabel, values);
+
+        QueryModifiers modifiers = metadata.getModifiers();
+        if (modifiers.getOffsetAsInteger() != null) {
+            query.setFirstResult(modifiers.getOffsetAsInteger());
+        }
+        Integer limit = modifiers.getLimitAsInteger();
+        if (maxResults > 0 && (limit == null || limit > maxResults)) {
+            limit = maxResults;
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        List<?> rows = query.getResultList();
+        if (!(metadata.getProjection() instanceof FactoryExpression)) {
+            return (List<T>) rows;
+        }
+
+        // like JPAQuery without a Hibernate result transformer
+        FactoryExpression<T> projection = (FactoryExpression<T>) metadata.getProjection();
+        List<T> results = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            results.add(row != null && row.getClass().isArray() ? projection.newInstance((Object[]) row) :
+                    projection.newInstance(row));
+        }
+        return results;
+    }
+
+    private static final class Compiled {
+
+        private final String jpql;
+        private final Map<Object, String> constantToLabel;
+
+        private Compiled(String jpql, Map<Object, String> constantToLabel) {
+            this.jpql = jpql;
+            this.constantToLabel = Collections.unmodifiableMap(constantToLabel);
+        }
+    }
+
+    /**
+     * Values of one execution of a {@link PreparedQuery}, not thread safe.
+     */
+    public static final class Bindings<T> {
+
+        private final PreparedQuery<T> query;
+        private final Map<ParamExpression<?>, Object> values = new HashMap<>();
+
+        private Bindings(PreparedQuery<T> query) {
+            this.query = query;
+        }
+
+        public <P> Bindings<T> bind(Param<P> param, P value) {
+            values.put(param, value);
+            return this;
+        }
+
+        public List<T> fetch(EntityManager entityManager) {
+            return query.execute(entityManager, values, 0);
+        }
+
+        /**
+         * @return the only result, {@code null} if there is none
+         * @throws NonUniqueResultException if there are more results
+         */
+        public T fetchOne(EntityManager entityManager) {
+            List<T> results = query.execute(entityManager, values, 2);
+            if (results.size() > 1) {
+                throw new NonUniqueResultException();
+            }
+            return results.isEmpty() ? null : results.get(0);
+        }
+
+        public PreparedQuery<T> getQuery() {
+            return query;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package net.test.query;
+
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.TemplateFactory;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.jpa.JPQLTemplates;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shape of a query - the predicate with all constants replaced by placeholders.
+ * <p>
+ * Two predicates differing only in constant values have the same shape and therefore serialize to the same JPQL.
+ * Constants are collected in depth-first order, the same order {@link CompiledQueryCache} replaces them with
+ * parameters. Empty collections are part of the shape, Querydsl serializes {@code in} with an empty collection as
+ * {@code 1=2}.
+ * <p>
+ * The pattern operand of {@code startsWith}, {@code endsWith} and {@code contains} is collected escaped for
+ * {@code like}. Querydsl escapes it only when it is a constant, a parameter is concatenated with {@code %} as is.
+ * <p>
+ * Predicates containing subqueries or user defined parameters are not cacheable.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class QueryShape implements Visitor<Void, Void> {
+
+    private static final Set<Ops> LIKE_OPERATORS = EnumSet.of(Ops.STARTS_WITH, Ops.STARTS_WITH_IC, Ops.ENDS_WITH,
+            Ops.ENDS_WITH_IC, Ops.STRING_CONTAINS, Ops.STRING_CONTAINS_IC);
+
+    // same escape character the JPQL like templates use
+    private static final TemplateFactory LIKE_ESCAPE = new TemplateFactory(JPQLTemplates.DEFAULT_ESCAPE);
+
+    private final StringBuilder key = new StringBuilder();
+    private final List<Object> constants = new ArrayList<>();
+    private boolean cacheable = true;
+
+    private QueryShape() {
+    }
+
+    static QueryShape of(EntityPath<?> root, Predicate predicate) {
+        QueryShape shape = new QueryShape();
+        shape.key.append(root.getType().getName()).append(' ').append(root).append(" where ");
+        if (predicate != null) {
+            predicate.accept(shape, null);
+        }
+        return shape;
+    }
+
+    /**
+     * @return the predicate with constants replaced by {@code ?}, e.g. {@code EQ(person.name,?)}
+     */
+    public static String normalize(Predicate predicate) {
+        QueryShape shape = new QueryShape();
+        predicate = (Predicate) ExpressionUtils.extract(predicate);
+        if (predicate != null) {
+            predicate.accept(shape, null);
+        }
+        return shape.getKey();
+    }
+
+    static boolean isBindable(Object constant) {
+        return !(constant instanceof Collection) || !((Collection<?>) constant).isEmpty();
+    }
+
+    String getKey() {
+        return key.toString();
+    }
+
+    List<Object> getConstants() {
+        return Collections.unmodifiableList(constants);
+    }
+
+    boolean isCacheable() {
+        return cacheable;
+    }
+
+    @Override
+    public Void visit(Constant<?> expr, Void context) {
+        if (isBindable(expr.getConstant())) {
+            key.append('?');
+            constants.add(expr.getConstant());
+        } else {
+            key.append("[]");
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(FactoryExpression<?> expr, Void context) {
+        key.append("new ").append(expr.getType().getName());
+        visitArgs(expr.getArgs());
+        return null;
+    }
+
+    @Override
+    public Void visit(Operation<?> expr, Void context) {
+        key.append(expr.getOperator().name());
+        if (isLikeOperator(expr.getOperator()) && expr.getArg(1) instanceof Constant) {
+            key.append('(');
+            expr.getArg(0).accept(this, null);
+            key.append(",?)");
+            constants.add(LIKE_ESCAPE.escapeForLike(String.valueOf(((Constant<?>) expr.getArg(1)).getConstant())));
+        } else {
+            visitArgs(expr.getArgs());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ParamExpression<?> expr, Void context) {
+        cacheable = false;
+        return null;
+    }
+
+    @Override
+    public Void visit(Path<?> expr, Void context) {
+        key.append(expr);
+        return null;
+    }
+
+    @Override
+    public Void visit(SubQueryExpression<?> expr, Void context) {
+        cacheable = false;
+        return null;
+    }
+
+    @Override
+    public Void visit(TemplateExpression<?> expr, Void context) {
+        key.append(expr.getTemplate());
+        for (Object arg : expr.getArgs()) {
+            key.append(',');
+            if (arg instanceof Expression) {
+                ((Expression<?>) arg).accept(this, null);
+            } else {
+                // non-expression template arguments are inlined into JPQL
+                key.append(arg);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isLikeOperator(Operator operator) {
+        return operator instanceof Ops && LIKE_OPERATORS.contains(operator);
+    }
+
+    private void visitArgs(List<Expression<?>> args) {
+        key.append('(');
+        for (int i = 0; i < args.size(); i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            args.get(i).accept(this, null);
+        }
+        key.append(')');
+    }
+}
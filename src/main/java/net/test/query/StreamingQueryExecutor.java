@@ -0,0 +1,149 @@
+package net.test.query;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.util.CloseableIterator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams query results over a forward only JDBC cursor instead of materializing the whole result list.
+ * <p>
+ * Every stream runs in its own read-only {@link EntityManager} which is cleared every {@code clearInterval} rows, so
+ * the memory needed does not grow with the size of the result. Entities returned before the last clear are detached,
+ * consumers must not rely on lazy loading of older rows.
+ * <p>
+ * The returned iterator holds a database connection until it is exhausted or closed.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class StreamingQueryExecutor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final int fetchSize;
+    private final int clearInterval;
+
+    public StreamingQueryExecutor(EntityManagerFactory entityManagerFactory, int fetchSize, int clearInterval) {
+        if (fetchSize < 1 || clearInterval < 1) {
+            throw new IllegalArgumentException("Fetch size and clear interval must be positive!");
+        }
+
+        this.entityManagerFactory = entityManagerFactory;
+        this.fetchSize = fetchSize;
+        this.clearInterval = clearInterval;
+    }
+
+    /**
+     * @return entities of {@code root} type matching the predicate, must be closed when not read to the end
+     */
+    public <T> CloseableIterator<T> stream(EntityPath<T> root, Predicate predicate) {
+        return stream(root, root, predicate);
+    }
+
+    /**
+     * @return {@code projection} of {@code root} rows matching the predicate, must be closed when not read to the end
+     */
+    public <T> CloseableIterator<T> stream(EntityPath<?> root, Expression<T> projection, Predicate predicate) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            // some drivers only use cursors outside of auto-commit mode
+            entityManager.getTransaction().begin();
+
+            com.mysema.commons.lang.CloseableIterator<T> rows = new JPAQuery<T>(entityManager).select(projection)
+                    .from(root).where(predicate).setHint(QueryHints.HINT_FETCH_SIZE, fetchSize).setHint(QueryHints
+                    .HINT_READONLY, true).iterate();
+
+            return new ClearingIterator<>(entityManager, rows, clearInterval);
+        } catch (RuntimeException e) {
+            close(entityManager);
+            throw e;
+        }
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public int getClearInterval() {
+        return clearInterval;
+    }
+
+    private static void close(EntityManager entityManager) {
+        try {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static class ClearingIterator<T> implements CloseableIterator<T> {
+
+        private final EntityManager entityManager;
+        private final com.mysema.commons.lang.CloseableIterator<T> rows;
+        private final int clearInterval;
+
+        private int count;
+        private boolean closed;
+
+        ClearingIterator(EntityManager entityManager, com.mysema.commons.lang.CloseableIterator<T> rows, int
+                clearInterval) {
+            this.entityManager = entityManager;
+            this.rows = rows;
+            this.clearInterval = clearInterval;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+
+            if (!rows.hasNext()) {
+                close();
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (count > 0 && count % clearInterval == 0) {
+                entityManager.clear();
+            }
+            count++;
+
+            return rows.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            try {
+                rows.close();
+            } finally {
+                StreamingQueryExecutor.close(entityManager);
+            }
+        }
+    }
+}
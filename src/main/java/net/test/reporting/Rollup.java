@@ -0,0 +1,107 @@
+package net.test.reporting;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.SimpleExpression;
+
+import javax.persistence.Table;
+
+/**
+ * Aggregate view defined in Querydsl - {@code select key, aggregate from root group by key} - and materialized by
+ * {@link RollupService}.
+ * <p>
+ * Rows with a {@code null} key are not aggregated. Keys are stored as text, {@link String}, {@link Long} and
+ * {@link Integer} keys are supported.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class Rollup<K> {
+
+    private final String name;
+    private final EntityPath<?> root;
+    private final NumberPath<Long> id;
+    private final SimpleExpression<K> key;
+    private final Expression<Long> aggregate;
+    private final String tableName;
+
+    /**
+     * @param name      unique name, the materialized rows are stored under it
+     * @param root      aggregated entity
+     * @param id        id of the entity, changes are tracked by it
+     * @param key       grouping expression, may navigate to a to-one association
+     * @param aggregate aggregate expression, e.g. {@code id.count()}
+     */
+    public Rollup(String name, EntityPath<?> root, NumberPath<Long> id, SimpleExpression<K> key, Expression<Long>
+            aggregate) {
+        Class<? extends K> keyType = key.getType();
+        if (!String.class.equals(keyType) && !Long.class.equals(keyType) && !Integer.class.equals(keyType)) {
+            throw new IllegalArgumentException("Unsupported key type " + keyType.getName());
+        }
+
+        this.name = name;
+        this.root = root;
+        this.id = id;
+        this.key = key;
+        this.aggregate = aggregate;
+
+        Table table = root.getType().getAnnotation(Table.class);
+        this.tableName = table != null && !table.name().isEmpty() ? table.name() : root.getType().getSimpleName()
+                .toUpperCase();
+    }
+
+    /**
+     * @return rollup counting {@code root} rows per key
+     */
+    public static <K> Rollup<K> count(String name, EntityPath<?> root, NumberPath<Long> id, SimpleExpression<K> key) {
+        return new Rollup<>(name, root, id, key, id.count());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public EntityPath<?> getRoot() {
+        return root;
+    }
+
+    public NumberPath<Long> getId() {
+        return id;
+    }
+
+    public SimpleExpression<K> getKey() {
+        return key;
+    }
+
+    public Expression<Long> getAggregate() {
+        return aggregate;
+    }
+
+    /**
+     * @return table of the root entity, as recorded by the change feed
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    String format(Object key) {
+        return String.valueOf(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    K parse(String key) {
+        Class<? extends K> keyType = this.key.getType();
+        if (Long.class.equals(keyType)) {
+            return (K) Long.valueOf(key);
+        }
+        if (Integer.class.equals(keyType)) {
+            return (K) Integer.valueOf(key);
+        }
+        return (K) key;
+    }
+
+    @Override
+    public String toString() {
+        return "Rollup{" + "name='" + name + '\'' + ", key=" + key + ", aggregate=" + aggregate + '}';
+    }
+}
@@ -0,0 +1,379 @@
+package net.test.reporting;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.changes.ChangeBatch;
+import net.test.changes.ChangeFeed;
+import net.test.entity.ChangeEvent;
+import net.test.entity.QChangeEvent;
+import net.test.entity.QRollupMember;
+import net.test.entity.QRollupRow;
+import net.test.entity.QRollupState;
+import net.test.entity.RollupMember;
+import net.test.entity.RollupRow;
+import net.test.entity.RollupState;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materializes {@link Rollup}s into {@code ROLLUP_ROW} and serves them.
+ * <p>
+ * The first refresh of a rollup runs its query over the whole table. Later refreshes are incremental - they read
+ * the {@link ChangeFeed} from the cursor of the previous refresh and recompute only the groups the changed rows
+ * belonged to before ({@code ROLLUP_MEMBER}) and belong to now. Rollups are refreshed every
+ * {@code refreshIntervalMillis}, and before a read when older than {@code maxStalenessMillis} - {@code 0} makes every
+ * read reflect all writes committed before it.
+ * <p>
+ * After every periodic refresh the change feed is purged up to the oldest cursor of all rollups ever refreshed, the
+ * rollups are the only consumers of the feed in the application.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class RollupService {
+
+    private static final Log LOG = LogFactory.getLog(RollupService.class);
+
+    // ids and keys per IN query
+    private static final int CHUNK_SIZE = 500;
+    // change feed events per refresh transaction
+    private static final int FEED_BATCH_SIZE = 1000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ChangeFeed changeFeed;
+    private final List<Rollup<?>> rollups;
+    private final long maxStalenessMillis;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+
+    // refresh times by rollup name known to this instance, checked before reads without a query
+    private final ConcurrentMap<String, Long> refreshedAt = new ConcurrentHashMap<>();
+
+    /**
+     * @param rollups               rollups refreshed periodically, others are refreshed when read
+     * @param refreshIntervalMillis period of the refresh of all rollups, {@code 0} - no periodic refresh
+     * @param maxStalenessMillis    age of a rollup refreshed before a read, {@code -1} - never refreshed on read
+     * @param batchSize             rows between flush/clear when writing materialized rows
+     */
+    public RollupService(EntityManagerFactory entityManagerFactory, ChangeFeed changeFeed, List<Rollup<?>> rollups,
+                         long refreshIntervalMillis, long maxStalenessMillis, int batchSize) {
+        if (refreshIntervalMillis < 0 || batchSize < 1) {
+            throw new IllegalArgumentException("Refresh interval must not be negative, batch size must be positive!");
+        }
+
+        this.entityManagerFactory = entityManagerFactory;
+        this.changeFeed = changeFeed;
+        this.rollups = new ArrayList<>(rollups);
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.batchSize = batchSize;
+
+        if (refreshIntervalMillis > 0) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("rollup-refresh-");
+            threadFactory.setDaemon(true);
+            scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            scheduler.scheduleWithFixedDelay(this::refreshAll, refreshIntervalMillis, refreshIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * @return all groups of the rollup
+     */
+    public <K> RollupSnapshot<K> read(Rollup<K> rollup) {
+        return read(rollup, null);
+    }
+
+    /**
+     * @param keys groups to read, {@code null} - all groups
+     * @return the groups of the rollup, groups without rows are not present
+     */
+    public <K> RollupSnapshot<K> read(Rollup<K> rollup, Collection<K> keys) {
+        Long lastRefresh = refreshedAt.get(rollup.getName());
+        if (lastRefresh == null || maxStalenessMillis >= 0 && System.currentTimeMillis() - lastRefresh >
+                maxStalenessMillis) {
+            refresh(rollup);
+        }
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+
+            JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+            QRollupRow rollupRow = QRollupRow.rollupRow;
+            QChangeEvent changeEvent = QChangeEvent.changeEvent;
+
+            RollupState state = entityManager.find(RollupState.class, rollup.getName());
+
+            // scalars, materialized rows are never changed through entities
+            List<Tuple> rows = new ArrayList<>();
+            if (keys == null) {
+                rows.addAll(jpaQueryFactory.select(rollupRow.groupKey, rollupRow.value).from(rollupRow).where
+                        (rollupRow.rollup.eq(rollup.getName())).orderBy(rollupRow.groupKey.asc()).fetch());
+            } else {
+                for (List<String> chunk : chunks(format(rollup, keys))) {
+                    rows.addAll(jpaQueryFactory.select(rollupRow.groupKey, rollupRow.value).from(rollupRow).where
+                            (rollupRow.rollup.eq(rollup.getName()), rollupRow.groupKey.in(chunk)).fetch());
+                }
+            }
+
+            // two queries, with "or" the position index is not used
+            long pending = jpaQueryFactory.selectFrom(changeEvent).where(changeEvent.position.gt(state.getCursor()),
+                    changeEvent.tableName.eq(rollup.getTableName())).fetchCount() + jpaQueryFactory.selectFrom
+                    (changeEvent).where(changeEvent.position.isNull(), changeEvent.tableName.eq(rollup.getTableName()))
+                    .fetchCount();
+
+            entityManager.getTransaction().commit();
+
+            Map<K, Long> values = new LinkedHashMap<>();
+            for (Tuple row : rows) {
+                values.put(rollup.parse(row.get(rollupRow.groupKey)), row.get(rollupRow.value));
+            }
+            return new RollupSnapshot<>(values, state.getRefreshedAt(), pending);
+        } finally {
+            close(entityManager);
+        }
+    }
+
+    /**
+     * Brings the rollup up to date with committed changes, rebuilds it if it was never refreshed.
+     */
+    public synchronized void refresh(Rollup<?> rollup) {
+        if (getState(rollup) == null) {
+            rebuild(rollup);
+            return;
+        }
+
+        while (true) {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                entityManager.getTransaction().begin();
+
+                RollupState state = entityManager.find(RollupState.class, rollup.getName());
+                ChangeBatch batch = changeFeed.read(state.getCursor(), FEED_BATCH_SIZE);
+
+                Set<Long> changedIds = new HashSet<>();
+                for (ChangeEvent event : batch.getEvents()) {
+                    if (rollup.getTableName().equals(event.getTableName())) {
+                        changedIds.add(event.getRowId());
+                    }
+                }
+                apply(entityManager, rollup, changedIds);
+
+                // apply clears the persistence context when it writes more than batchSize rows
+                state = entityManager.merge(state);
+                state.setCursor(batch.getCursor());
+                boolean done = batch.getEvents().size() < FEED_BATCH_SIZE;
+                if (done) {
+                    state.setRefreshedAt(new Date());
+                }
+
+                entityManager.getTransaction().commit();
+
+                if (done) {
+                    refreshedAt.put(rollup.getName(), state.getRefreshedAt().getTime());
+                    return;
+                }
+            } finally {
+                close(entityManager);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the whole rollup from its table.
+     */
+    public synchronized void rebuild(Rollup<?> rollup) {
+        // changes after the cursor that the query below already sees are applied again, which changes nothing
+        long cursor = changeFeed.head();
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+
+            JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+            QRollupRow rollupRow = QRollupRow.rollupRow;
+            QRollupMember rollupMember = QRollupMember.rollupMember;
+
+            jpaQueryFactory.delete(rollupRow).where(rollupRow.rollup.eq(rollup.getName())).execute();
+            jpaQueryFactory.delete(rollupMember).where(rollupMember.rollup.eq(rollup.getName())).execute();
+
+            List<Tuple> members = jpaQueryFactory.select(rollup.getId(), rollup.getKey()).from(rollup.getRoot())
+                    .where(rollup.getKey().isNotNull()).fetch();
+            int count = 0;
+            for (Tuple member : members) {
+                entityManager.persist(new RollupMember(rollup.getName(), member.get(rollup.getId()), rollup.format
+                        (member.get(rollup.getKey()))));
+                if (++count % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+
+            persistRows(entityManager, rollup, jpaQueryFactory.select(rollup.getKey(), rollup.getAggregate()).from
+                    (rollup.getRoot()).where(rollup.getKey().isNotNull()).groupBy(rollup.getKey()).fetch());
+
+            RollupState state = entityManager.find(RollupState.class, rollup.getName());
+            if (state == null) {
+                state = new RollupState(rollup.getName());
+            }
+            state.setCursor(cursor);
+            state.setRefreshedAt(new Date());
+            entityManager.merge(state);
+
+            entityManager.getTransaction().commit();
+            refreshedAt.put(rollup.getName(), state.getRefreshedAt().getTime());
+        } finally {
+            close(entityManager);
+        }
+    }
+
+    public List<Rollup<?>> getRollups() {
+        return rollups;
+    }
+
+    /**
+     * Stops the periodic refresh, called by Spring when the context is closed. A running refresh is let finish, the
+     * entity manager factory is closed after this service.
+     */
+    public void shutdown() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void refreshAll() {
+        for (Rollup<?> rollup : rollups) {
+            try {
+                refresh(rollup);
+            } catch (RuntimeException e) {
+                // keep the schedule, the next refresh continues from the last committed cursor
+                LOG.warn("Refresh of " + rollup.getName() + " failed", e);
+            }
+        }
+
+        try {
+            purgeChangeFeed();
+        } catch (RuntimeException e) {
+            LOG.warn("Purge of the change feed failed", e);
+        }
+    }
+
+    /**
+     * Deletes change feed events all rollups have been refreshed past, see {@link ChangeFeed#purge(long)}.
+     *
+     * @return number of deleted events
+     */
+    public synchronized long purgeChangeFeed() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            QRollupState rollupState = QRollupState.rollupState;
+            Long cursor = new JPAQueryFactory(entityManager).select(rollupState.cursor.min()).from(rollupState)
+                    .fetchOne();
+            return cursor != null ? changeFeed.purge(cursor) : 0;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Moves changed rows to their current groups and recomputes their old and new groups.
+     */
+    private <K> void apply(EntityManager entityManager, Rollup<K> rollup, Set<Long> changedIds) {
+        JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+        QRollupRow rollupRow = QRollupRow.rollupRow;
+        QRollupMember rollupMember = QRollupMember.rollupMember;
+
+        Set<String> affectedKeys = new HashSet<>();
+        for (List<Long> chunk : chunks(changedIds)) {
+            affectedKeys.addAll(jpaQueryFactory.select(rollupMember.groupKey).from(rollupMember).where(rollupMember
+                    .rollup.eq(rollup.getName()), rollupMember.rowId.in(chunk)).fetch());
+            jpaQueryFactory.delete(rollupMember).where(rollupMember.rollup.eq(rollup.getName()), rollupMember.rowId
+                    .in(chunk)).execute();
+
+            for (Tuple member : jpaQueryFactory.select(rollup.getId(), rollup.getKey()).from(rollup.getRoot()).where
+                    (rollup.getId().in(chunk), rollup.getKey().isNotNull()).fetch()) {
+                String key = rollup.format(member.get(rollup.getKey()));
+                entityManager.persist(new RollupMember(rollup.getName(), member.get(rollup.getId()), key));
+                affectedKeys.add(key);
+            }
+        }
+
+        for (List<String> chunk : chunks(affectedKeys)) {
+            jpaQueryFactory.delete(rollupRow).where(rollupRow.rollup.eq(rollup.getName()), rollupRow.groupKey.in
+                    (chunk)).execute();
+
+            List<K> keys = new ArrayList<>(chunk.size());
+            for (String key : chunk) {
+                keys.add(rollup.parse(key));
+            }
+            persistRows(entityManager, rollup, jpaQueryFactory.select(rollup.getKey(), rollup.getAggregate()).from
+                    (rollup.getRoot()).where(rollup.getKey().in(keys)).groupBy(rollup.getKey()).fetch());
+        }
+    }
+
+    private void persistRows(EntityManager entityManager, Rollup<?> rollup, List<Tuple> groups) {
+        int count = 0;
+        for (Tuple group : groups) {
+            entityManager.persist(new RollupRow(rollup.getName(), rollup.format(group.get(rollup.getKey())), group
+                    .get(rollup.getAggregate())));
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+    }
+
+    private RollupState getState(Rollup<?> rollup) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(RollupState.class, rollup.getName());
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static <K> List<String> format(Rollup<K> rollup, Collection<K> keys) {
+        List<String> result = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            result.add(rollup.format(key));
+        }
+        return result;
+    }
+
+    private static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> list = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += CHUNK_SIZE) {
+            chunks.add(list.subList(from, Math.min(from + CHUNK_SIZE, list.size())));
+        }
+        return chunks;
+    }
+
+    private static void close(EntityManager entityManager) {
+        if (entityManager.getTransaction().isActive()) {
+            entityManager.getTransaction().rollback();
+        }
+        entityManager.close();
+    }
+}
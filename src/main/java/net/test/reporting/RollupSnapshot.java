@@ -0,0 +1,65 @@
+package net.test.reporting;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Materialized values of a {@link Rollup} and how stale they are.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class RollupSnapshot<K> {
+
+    private final Map<K, Long> values;
+    private final Date refreshedAt;
+    private final long pendingChanges;
+
+    public RollupSnapshot(Map<K, Long> values, Date refreshedAt, long pendingChanges) {
+        this.values = values;
+        this.refreshedAt = refreshedAt;
+        this.pendingChanges = pendingChanges;
+    }
+
+    /**
+     * @return aggregate by key, keys without rows are not present
+     */
+    public Map<K, Long> getValues() {
+        return values;
+    }
+
+    /**
+     * @return aggregate of the key, {@code 0} if there are no rows with it
+     */
+    public long get(K key) {
+        Long value = values.get(key);
+        return value != null ? value : 0;
+    }
+
+    /**
+     * @return time the values were last brought up to date with all committed changes
+     */
+    public Date getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    public long getStalenessMillis() {
+        return Math.max(System.currentTimeMillis() - refreshedAt.getTime(), 0);
+    }
+
+    /**
+     * @return changes of the aggregated table made since, not reflected in the values
+     */
+    public long getPendingChanges() {
+        return pendingChanges;
+    }
+
+    public boolean isCurrent() {
+        return pendingChanges == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RollupSnapshot{" + "values=" + values.size() + ", refreshedAt=" + refreshedAt + ", pendingChanges=" +
+                pendingChanges + '}';
+    }
+}
@@ -0,0 +1,28 @@
+package net.test.reporting;
+
+import net.test.entity.QAddress;
+import net.test.entity.QPerson;
+
+/**
+ * Rollups served to the dashboards, registered with {@link RollupService} by
+ * {@link net.test.config.ReportingConfiguration}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class Rollups {
+
+    /**
+     * Number of persons per name.
+     */
+    public static final Rollup<String> PERSONS_BY_NAME = Rollup.count("PERSONS_BY_NAME", QPerson.person, QPerson
+            .person.id, QPerson.person.name);
+
+    /**
+     * Number of addresses per person id, persons without addresses are not listed.
+     */
+    public static final Rollup<Long> ADDRESSES_BY_PERSON = Rollup.count("ADDRESSES_BY_PERSON", QAddress.address,
+            QAddress.address.id, QAddress.address.person.id);
+
+    private Rollups() {
+    }
+}
@@ -0,0 +1,21 @@
+package net.test.repository;
+
+import com.querydsl.core.types.Predicate;
+import net.test.entity.Address;
+import org.springframework.data.util.CloseableIterator;
+
+/**
+ * Custom {@link AddressRepository} methods, implemented by {@link AddressRepositoryImpl}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public interface AddressRepositoryCustom {
+
+    /**
+     * Streams matching addresses without keeping them in memory, see {@link net.test.query.StreamingQueryExecutor}.
+     *
+     * @param predicate filter, may be {@code null}
+     * @return iterator over matching addresses, must be closed when not read to the end
+     */
+    CloseableIterator<Address> stream(Predicate predicate);
+}
@@ -0,0 +1,22 @@
+package net.test.repository;
+
+import com.querydsl.core.types.Predicate;
+import net.test.entity.Address;
+import net.test.entity.QAddress;
+import net.test.query.StreamingQueryExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.CloseableIterator;
+
+/**
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class AddressRepositoryImpl implements AddressRepositoryCustom {
+
+    @Autowired
+    private StreamingQueryExecutor streamingQueryExecutor;
+
+    @Override
+    public CloseableIterator<Address> stream(Predicate predicate) {
+        return streamingQueryExecutor.stream(QAddress.address, predicate);
+    }
+}
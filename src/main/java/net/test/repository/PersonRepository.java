@@ -7,5 +7,6 @@ import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 /**
  * @author Zbynek Vavros (zbynek.vavros@i.cz)
  */
-public interface PersonRepository extends JpaRepository<Person, Long>, QueryDslPredicateExecutor<Person> {
+public interface PersonRepository extends JpaRepository<Person, Long>, QueryDslPredicateExecutor<Person>,
+        PersonRepositoryCustom {
 }
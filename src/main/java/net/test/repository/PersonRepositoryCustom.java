@@ -0,0 +1,235 @@
+package net.test.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import net.test.dto.PersonDTO;
+import net.test.dto.PersonName;
+import net.test.entity.Person;
+import net.test.paging.KeysetPage;
+import net.test.paging.KeysetPageRequest;
+import net.test.query.BatchLoader;
+import net.test.query.FetchProfile;
+import net.test.query.LookupResult;
+import net.test.query.PreparedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Custom {@link PersonRepository} methods, implemented by {@link PersonRepositoryImpl}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public interface PersonRepositoryCustom {
+
+    /**
+     * Keyset (seek) pagination - does not use {@code OFFSET}, so the cost of a page does not depend on its position.
+     *
+     * @param predicate   filter, may be {@code null}
+     * @param pageRequest page size, ordering and the cursor returned with the previous page
+     * @return requested page, total count is only filled in when requested
+     */
+    KeysetPage<Person> findAll(Predicate predicate, KeysetPageRequest pageRequest);
+
+    /**
+     * Same as {@link PersonRepository#findOne(Predicate)}, but loads the graph of the fetch profile, see
+     * {@link net.test.query.PersonFetchProfiles}.
+     *
+     * @param predicate filter, may be {@code null}
+     * @param profile   graph to load and how
+     * @return the matching person, {@code null} if there is none
+     */
+    Person findOne(Predicate predicate, FetchProfile profile);
+
+    /**
+     * Same as {@link PersonRepository#findAll(Predicate, OrderSpecifier[])}, but loads the graph of the fetch
+     * profile.
+     *
+     * @param predicate       filter, may be {@code null}
+     * @param profile         graph to load and how
+     * @param orderSpecifiers ordering, may be empty
+     * @return all matching persons
+     */
+    List<Person> findAll(Predicate predicate, FetchProfile profile, OrderSpecifier<?>... orderSpecifiers);
+
+    /**
+     * Same as {@link PersonRepository#findAll(Predicate, Pageable)}, but loads the graph of the fetch profile. The
+     * collections are always batch loaded by the ids of the page, a forced join or subselect fetch fails.
+     *
+     * @param predicate filter, may be {@code null}
+     * @param pageable  page, size and sorting
+     * @param profile   graph to load and how
+     * @return requested page
+     */
+    Page<Person> findAll(Predicate predicate, Pageable pageable, FetchProfile profile);
+
+    /**
+     * Same as {@link #findAll(Predicate, KeysetPageRequest)}, but loads the graph of the fetch profile.
+     */
+    KeysetPage<Person> findAll(Predicate predicate, KeysetPageRequest pageRequest, FetchProfile profile);
+
+    /**
+     * Persons by name for many names, one {@code name in (...)} query per chunk of names instead of
+     * {@code findOne(nameEquals(name))} per name, see {@link net.test.query.BatchLookup}.
+     *
+     * @param names names to look up, duplicates are looked up once
+     * @return persons by name, names without persons are reported as missing
+     */
+    LookupResult<String, Person> findAllByNames(Collection<String> names);
+
+    /**
+     * Same as {@link #findAllByNames(Collection)}, but by name and surname.
+     *
+     * @param names names and surnames to look up, duplicates are looked up once
+     * @return persons by name and surname, pairs without persons are reported as missing
+     */
+    LookupResult<PersonName, Person> findAllByFullNames(Collection<PersonName> names);
+
+    /**
+     * New loader coalescing single lookups by name into {@link #findAllByNames(Collection)} calls, for one request.
+     * Every batch runs in a transaction of its own unless the dispatching thread has one.
+     */
+    BatchLoader<String, Person> nameLoader();
+
+    /**
+     * Same as {@link #nameLoader()}, but by name and surname.
+     */
+    BatchLoader<PersonName, Person> fullNameLoader();
+
+    /**
+     * Executes a prepared query with the bound values, see {@link net.test.query.PersonPreparedQueries}.
+     *
+     * @param query e.g. {@code BY_NAME.bind(NAME, name)}
+     * @return all results
+     */
+    <T> List<T> fetch(PreparedQuery.Bindings<T> query);
+
+    /**
+     * Same as {@link #fetch(PreparedQuery.Bindings)}, but for at most one result.
+     *
+     * @return the only result, {@code null} if there is none
+     * @throws com.querydsl.core.NonUniqueResultException if there are more results
+     */
+    <T> T fetchOne(PreparedQuery.Bindings<T> query);
+
+    /**
+     * Same as {@link PersonRepository#findAll(Predicate)}, but the JPQL is served from
+     * {@link net.test.query.CompiledQueryCache} when a predicate of the same shape was executed before.
+     *
+     * @param predicate filter, may be {@code null}
+     * @return all matching persons
+     */
+    List<Person> findAllCompiled(Predicate predicate);
+
+    /**
+     * Same as {@link PersonRepository#findAll(Predicate)}, but the result is served from the query cache when the
+     * same predicate with the same values was executed before and the tables did not change since.
+     * <p>
+     * Falls back to a plain query when the query cache is disabled.
+     *
+     * @param predicate filter, may be {@code null}
+     * @return all matching persons
+     */
+    List<Person> findAllCached(Predicate predicate);
+
+    /**
+     * Streams matching persons without keeping them in memory, see {@link net.test.query.StreamingQueryExecutor}.
+     *
+     * @param predicate filter, may be {@code null}
+     * @return iterator over matching persons, must be closed when not read to the end
+     */
+    CloseableIterator<Person> stream(Predicate predicate);
+
+    /**
+     * Same as {@link PersonRepository#findAll(Predicate)}, but split into {@code Person.id} ranges queried in
+     * parallel, see {@link net.test.query.PartitionedQueryExecutor}.
+     *
+     * @param predicate       filter, may be {@code null}
+     * @param orderSpecifiers ordering, may be empty
+     * @return all matching persons, detached
+     */
+    List<Person> findAllPartitioned(Predicate predicate, OrderSpecifier<?>... orderSpecifiers);
+
+    /**
+     * Asynchronous {@link PersonRepository#findOne(Predicate)}, see {@link net.test.query.AsyncQueryExecutor}.
+     */
+    CompletableFuture<Person> findOneAsync(Predicate predicate);
+
+    /**
+     * Asynchronous {@link PersonRepository#findAll(Predicate)}, see {@link net.test.query.AsyncQueryExecutor}.
+     */
+    CompletableFuture<Iterable<Person>> findAllAsync(Predicate predicate);
+
+    /**
+     * Asynchronous {@link PersonRepository#findAll(Predicate, Pageable)}, see
+     * {@link net.test.query.AsyncQueryExecutor}.
+     */
+    CompletableFuture<Page<Person>> findAllAsync(Predicate predicate, Pageable pageable);
+
+    /**
+     * Asynchronous {@link PersonRepository#count(Predicate)}, see {@link net.test.query.AsyncQueryExecutor}.
+     */
+    CompletableFuture<Long> countAsync(Predicate predicate);
+
+    /**
+     * Projects matching persons to DTOs without creating entities, see {@link net.test.dto.PersonDTOProjection}.
+     *
+     * @param predicate       filter, may be {@code null}
+     * @param orderSpecifiers ordering, may be empty
+     * @return DTOs of all matching persons
+     */
+    List<PersonDTO> findAllAsDto(Predicate predicate, OrderSpecifier<?>... orderSpecifiers);
+
+    /**
+     * DTO of the person by id, served from {@link net.test.cache.OffHeapPersonCache} and loaded into it on a miss.
+     * Within a read-write transaction a miss is not loaded into the cache.
+     *
+     * @return DTO of the person, {@code null} if there is no such person
+     */
+    PersonDTO findDtoCached(long id);
+
+    /**
+     * Streams DTOs of matching persons, see {@link #findAllAsDto(Predicate, OrderSpecifier[])} and
+     * {@link #stream(Predicate)}.
+     *
+     * @param predicate filter, may be {@code null}
+     * @return iterator over DTOs of matching persons, must be closed when not read to the end
+     */
+    CloseableIterator<PersonDTO> streamAsDto(Predicate predicate);
+
+    /**
+     * Loads addresses of the given persons in batches, see {@link net.test.query.AddressBatchLoader}.
+     *
+     * @param persons result of a person query, e.g. a {@link org.springframework.data.domain.Page}
+     * @return the same persons, with addresses initialized
+     */
+    <C extends Iterable<Person>> C withAddresses(C persons);
+
+    /**
+     * Deletes matching persons and their addresses with one statement per table, without loading them.
+     * <p>
+     * Matching persons and addresses managed by the current persistence context are detached.
+     *
+     * @param predicate filter, {@code null} deletes everything
+     * @return number of deleted persons
+     */
+    long deleteAll(Predicate predicate);
+
+    /**
+     * Updates matching persons with one statement, without loading them.
+     * <p>
+     * Matching persons managed by the current persistence context are refreshed.
+     *
+     * @param predicate   filter, {@code null} updates everything
+     * @param assignments new values by path, a value may be a constant, an {@link com.querydsl.core.types.Expression}
+     *                    or {@code null}
+     * @return number of updated persons
+     */
+    long updateAll(Predicate predicate, Map<? extends Path<?>, ?> assignments);
+}
@@ -0,0 +1,470 @@
+package net.test.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import net.test.cache.OffHeapPersonCache;
+import net.test.dto.PersonDTO;
+import net.test.dto.PersonDTOProjection;
+import net.test.dto.PersonName;
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QAddress;
+import net.test.entity.QPerson;
+import net.test.paging.Keyset;
+import net.test.paging.KeysetPage;
+import net.test.paging.KeysetPageRequest;
+import net.test.query.AddressBatchLoader;
+import net.test.query.AsyncQueryExecutor;
+import net.test.query.BatchLoader;
+import net.test.query.BatchLookup;
+import net.test.query.CompiledQueryCache;
+import net.test.query.FetchProfile;
+import net.test.query.FetchStrategy;
+import net.test.query.LookupResult;
+import net.test.query.PartitionedQueryExecutor;
+import net.test.query.PersistenceContexts;
+import net.test.query.PreparedQuery;
+import net.test.query.StreamingQueryExecutor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.AttributeNode;
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class PersonRepositoryImpl implements PersonRepositoryCustom {
+
+    private static final int MANAGED_IDS_CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CompiledQueryCache compiledQueryCache;
+
+    @Autowired
+    private StreamingQueryExecutor streamingQueryExecutor;
+
+    @Autowired
+    private PartitionedQueryExecutor partitionedQueryExecutor;
+
+    @Autowired
+    private AddressBatchLoader addressBatchLoader;
+
+    @Autowired
+    private AsyncQueryExecutor asyncQueryExecutor;
+
+    @Autowired
+    private BatchLookup batchLookup;
+
+    @Autowired
+    private OffHeapPersonCache offHeapPersonCache;
+
+    // the repository proxy, so asynchronous calls get their own transaction
+    @Lazy
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Override
+    public KeysetPage<Person> findAll(Predicate predicate, KeysetPageRequest pageRequest) {
+        JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+        QPerson person = QPerson.person;
+
+        List<OrderSpecifier<?>> orderSpecifiers = Keyset.withTieBreaker(pageRequest.getOrderSpecifiers(), person.id);
+
+        // select the sort key next to the entity so the cursor can be built from the last row
+        Expression<?>[] projection = new Expression<?>[orderSpecifiers.size() + 1];
+        projection[0] = person;
+        for (int i = 0; i < orderSpecifiers.size(); i++) {
+            projection[i + 1] = orderSpecifiers.get(i).getTarget();
+        }
+
+        JPAQuery<Tuple> query = jpaQueryFactory.select(projection).from(person).where(predicate);
+        if (pageRequest.getCursor() != null) {
+            query.where(Keyset.seek(orderSpecifiers, Keyset.decode(pageRequest.getCursor(), orderSpecifiers)));
+        }
+
+        // one row over the page size tells whether there is a next page
+        List<Tuple> rows = query.orderBy(orderSpecifiers.toArray(new OrderSpecifier<?>[orderSpecifiers.size()]))
+                .limit(pageRequest.getSize() + 1).fetch();
+
+        boolean hasNext = rows.size() > pageRequest.getSize();
+        if (hasNext) {
+            rows = rows.subList(0, pageRequest.getSize());
+        }
+
+        List<Person> content = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            content.add(row.get(person));
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            Tuple last = rows.get(rows.size() - 1);
+            Object[] key = new Object[orderSpecifiers.size()];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = last.get(i + 1, Object.class);
+            }
+            nextCursor = Keyset.encode(key);
+        }
+
+        Long total = null;
+        if (pageRequest.isCountRequested()) {
+            total = jpaQueryFactory.selectFrom(person).where(predicate).fetchCount();
+        }
+
+        return new KeysetPage<>(content, nextCursor, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Person findOne(Predicate predicate, FetchProfile profile) {
+        JPAQuery<Person> query = new JPAQueryFactory(entityManager).selectFrom(QPerson.person).where(predicate);
+        if (!loadsAddresses(profile)) {
+            return query.fetchOne();
+        }
+
+        FetchStrategy strategy = profile.getStrategy() != null ? profile.getStrategy() : FetchStrategy.JOIN;
+        if (strategy == FetchStrategy.JOIN) {
+            return joinFetch(query, profile).fetchOne();
+        }
+
+        Person person = query.fetchOne();
+        if (person != null) {
+            loadAddresses(Collections.singletonList(person), predicate, strategy);
+        }
+        return person;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Person> findAll(Predicate predicate, FetchProfile profile, OrderSpecifier<?>... orderSpecifiers) {
+        JPAQuery<Person> query = new JPAQueryFactory(entityManager).selectFrom(QPerson.person).where(predicate)
+                .orderBy(orderSpecifiers);
+        if (!loadsAddresses(profile)) {
+            return query.fetch();
+        }
+        if (profile.getStrategy() == FetchStrategy.JOIN) {
+            return joinFetch(query, profile).fetch();
+        }
+
+        List<Person> persons = query.fetch();
+        loadAddresses(persons, predicate, profile.strategyFor(false, persons.size(), addressBatchLoader
+                .getChunkSize()));
+        return persons;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Person> findAll(Predicate predicate, Pageable pageable, FetchProfile profile) {
+        // fails on a forced join fetch before querying
+        FetchStrategy strategy = profile.strategyFor(true, pageable.getPageSize(), addressBatchLoader
+                .getChunkSize());
+
+        JPAQuery<Person> countQuery = new JPAQueryFactory(entityManager).selectFrom(QPerson.person).where(predicate);
+        List<Person> persons = new Querydsl(entityManager, new PathBuilder<>(Person.class, QPerson.person
+                .getMetadata())).applyPagination(pageable, countQuery.clone()).fetch();
+
+        if (loadsAddresses(profile)) {
+            loadAddresses(persons, predicate, strategy);
+        }
+        return PageableExecutionUtils.getPage(persons, pageable, countQuery::fetchCount);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Person> findAll(Predicate predicate, KeysetPageRequest pageRequest, FetchProfile profile) {
+        FetchStrategy strategy = profile.strategyFor(true, pageRequest.getSize(), addressBatchLoader.getChunkSize());
+
+        KeysetPage<Person> page = findAll(predicate, pageRequest);
+        if (loadsAddresses(profile)) {
+            loadAddresses(page.getContent(), predicate, strategy);
+        }
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LookupResult<String, Person> findAllByNames(Collection<String> names) {
+        JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+        QPerson person = QPerson.person;
+
+        return batchLookup.fetch(names, 1, chunk -> jpaQueryFactory.selectFrom(person).where(person.name.in(chunk))
+                .fetch(), Person::getName);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LookupResult<PersonName, Person> findAllByFullNames(Collection<PersonName> names) {
+        JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+        QPerson person = QPerson.person;
+
+        return batchLookup.fetch(names, 2, chunk -> {
+            // the H2 dialect does not render (name, surname) in ((?, ?), ...), the pairs are or-ed instead
+            BooleanBuilder anyName = new BooleanBuilder();
+            for (PersonName name : chunk) {
+                anyName.or(person.name.eq(name.getName()).and(person.surname.eq(name.getSurname())));
+            }
+            return jpaQueryFactory.selectFrom(person).where(anyName).fetch();
+        }, found -> new PersonName(found.getName(), found.getSurname()));
+    }
+
+    @Override
+    public BatchLoader<String, Person> nameLoader() {
+        return new BatchLoader<>(personRepository::findAllByNames);
+    }
+
+    @Override
+    public BatchLoader<PersonName, Person> fullNameLoader() {
+        return new BatchLoader<>(personRepository::findAllByFullNames);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> List<T> fetch(PreparedQuery.Bindings<T> query) {
+        return query.fetch(entityManager);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> T fetchOne(PreparedQuery.Bindings<T> query) {
+        return query.fetchOne(entityManager);
+    }
+
+    @Override
+    public List<Person> findAllCompiled(Predicate predicate) {
+        return compiledQueryCache.fetch(entityManager, QPerson.person, predicate);
+    }
+
+    @Override
+    public List<Person> findAllCached(Predicate predicate) {
+        return new JPAQueryFactory(entityManager).selectFrom(QPerson.person).where(predicate).setHint(QueryHints
+                .HINT_CACHEABLE, true).fetch();
+    }
+
+    @Override
+    public CloseableIterator<Person> stream(Predicate predicate) {
+        return streamingQueryExecutor.stream(QPerson.person, predicate);
+    }
+
+    @Override
+    public List<Person> findAllPartitioned(Predicate predicate, OrderSpecifier<?>... orderSpecifiers) {
+        return partitionedQueryExecutor.fetch(QPerson.person, QPerson.person.id, predicate, Arrays.asList
+                (orderSpecifiers));
+    }
+
+    @Override
+    public CompletableFuture<Person> findOneAsync(Predicate predicate) {
+        return asyncQueryExecutor.submit(() -> personRepository.findOne(predicate));
+    }
+
+    @Override
+    public CompletableFuture<Iterable<Person>> findAllAsync(Predicate predicate) {
+        return asyncQueryExecutor.submit(() -> personRepository.findAll(predicate));
+    }
+
+    @Override
+    public CompletableFuture<Page<Person>> findAllAsync(Predicate predicate, Pageable pageable) {
+        return asyncQueryExecutor.submit(() -> personRepository.findAll(predicate, pageable));
+    }
+
+    @Override
+    public CompletableFuture<Long> countAsync(Predicate predicate) {
+        return asyncQueryExecutor.submit(() -> personRepository.count(predicate));
+    }
+
+    @Override
+    public List<PersonDTO> findAllAsDto(Predicate predicate, OrderSpecifier<?>... orderSpecifiers) {
+        return new JPAQueryFactory(entityManager).select(PersonDTOProjection.PERSON_DTO).from(QPerson.person).where
+                (predicate).orderBy(orderSpecifiers).fetch();
+    }
+
+    @Override
+    public PersonDTO findDtoCached(long id) {
+        PersonDTO cached = offHeapPersonCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = offHeapPersonCache.stamp();
+        PersonDTO loaded = new JPAQueryFactory(entityManager).select(PersonDTOProjection.PERSON_DTO).from(QPerson
+                .person).where(QPerson.person.id.eq(id)).fetchOne();
+        // a read-write transaction may see its own uncommitted changes, they must not be shared through the cache
+        boolean readWrite = TransactionSynchronizationManager.isActualTransactionActive() &&
+                !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (loaded != null && !readWrite) {
+            offHeapPersonCache.put(id, loaded.getName(), loaded.getSurname(), stamp);
+        }
+        return loaded;
+    }
+
+    @Override
+    public CloseableIterator<PersonDTO> streamAsDto(Predicate predicate) {
+        return streamingQueryExecutor.stream(QPerson.person, PersonDTOProjection.PERSON_DTO, predicate);
+    }
+
+    @Override
+    public <C extends Iterable<Person>> C withAddresses(C persons) {
+        addressBatchLoader.load(entityManager, persons);
+        return persons;
+    }
+
+    @Override
+    @Transactional
+    public long deleteAll(Predicate predicate) {
+        JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+        QPerson person = QPerson.person;
+        QAddress address = QAddress.address;
+
+        entityManager.flush();
+        Set<Long> affectedIds = managedIds(predicate);
+
+        // JPQL Language Reference 10.2.9. - delete does not cascade, addresses have to go first
+        jpaQueryFactory.delete(address).where(address.person.id.in(JPAExpressions.select(person.id).from(person)
+                .where(predicate))).execute();
+        long deleted = jpaQueryFactory.delete(person).where(predicate).execute();
+        invalidateCache();
+
+        for (Address managed : PersistenceContexts.managedEntities(entityManager, Address.class)) {
+            if (managed.getPerson() != null && affectedIds.contains(managed.getPerson().getId())) {
+                entityManager.detach(managed);
+            }
+        }
+        for (Person managed : PersistenceContexts.managedEntities(entityManager, Person.class)) {
+            if (affectedIds.contains(managed.getId())) {
+                entityManager.detach(managed);
+            }
+        }
+
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public long updateAll(Predicate predicate, Map<? extends Path<?>, ?> assignments) {
+        JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+
+        entityManager.flush();
+        // before the update, it may change the columns the predicate tests
+        Set<Long> affectedIds = managedIds(predicate);
+
+        JPAUpdateClause update = jpaQueryFactory.update(QPerson.person).where(predicate);
+        for (Map.Entry<? extends Path<?>, ?> assignment : assignments.entrySet()) {
+            Path<Object> path = (Path<Object>) assignment.getKey();
+            Object value = assignment.getValue();
+            if (value == null) {
+                update.setNull(path);
+            } else if (value instanceof Expression) {
+                set(update, path, (Expression<?>) value);
+            } else {
+                update.set(path, value);
+            }
+        }
+        long updated = update.execute();
+        invalidateCache();
+
+        for (Person managed : PersistenceContexts.managedEntities(entityManager, Person.class)) {
+            if (affectedIds.contains(managed.getId())) {
+                entityManager.refresh(managed);
+            }
+        }
+
+        return updated;
+    }
+
+    /**
+     * Bulk statements fire no entity events and affected ids are not known, the whole off-heap cache is invalidated
+     * now and again after the transaction, like {@link net.test.cache.PersonCacheInvalidator} does for single persons.
+     */
+    private void invalidateCache() {
+        offHeapPersonCache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    offHeapPersonCache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    private boolean loadsAddresses(FetchProfile profile) {
+        for (AttributeNode<?> node : entityManager.getEntityGraph(profile.getGraphName()).getAttributeNodes()) {
+            if (node.getAttributeName().equals(QPerson.person.addresses.getMetadata().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private JPAQuery<Person> joinFetch(JPAQuery<Person> query, FetchProfile profile) {
+        EntityGraph<?> graph = entityManager.getEntityGraph(profile.getGraphName());
+        // the person row is repeated per address
+        return query.distinct().setHint(QueryHints.HINT_FETCHGRAPH, graph);
+    }
+
+    private void loadAddresses(List<Person> persons, Predicate predicate, FetchStrategy strategy) {
+        if (strategy == FetchStrategy.SUBSELECT) {
+            addressBatchLoader.load(entityManager, persons, predicate);
+        } else {
+            addressBatchLoader.load(entityManager, persons);
+        }
+    }
+
+    private static <T> void set(JPAUpdateClause update, Path<T> path, Expression<? extends T> value) {
+        update.set(path, value);
+    }
+
+    /**
+     * @return ids of managed persons matching the predicate, only managed ids are queried
+     */
+    private Set<Long> managedIds(Predicate predicate) {
+        List<Long> managedIds = new ArrayList<>();
+        for (Person managed : PersistenceContexts.managedEntities(entityManager, Person.class)) {
+            managedIds.add(managed.getId());
+        }
+
+        JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
+        QPerson person = QPerson.person;
+
+        Set<Long> result = new HashSet<>();
+        for (int from = 0; from < managedIds.size(); from += MANAGED_IDS_CHUNK_SIZE) {
+            List<Long> chunk = managedIds.subList(from, Math.min(from + MANAGED_IDS_CHUNK_SIZE, managedIds.size()));
+            result.addAll(jpaQueryFactory.select(person.id).from(person).where(predicate, person.id.in(chunk))
+                    .fetch());
+        }
+        return result;
+    }
+}
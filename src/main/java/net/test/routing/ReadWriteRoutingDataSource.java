@@ -0,0 +1,100 @@
+package net.test.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes connections of read-only transactions ({@code @Transactional(readOnly = true)}, which includes the Spring
+ * Data repository and predicate executor reads) to replicas, round robin, and all other connections to the primary.
+ * <p>
+ * Replicas lag behind the primary, so for {@code lagWindowMillis} after a thread used the primary outside of a
+ * read-only transaction (after the commit when in a transaction) its reads stay on the primary and see its own
+ * writes. Resource-local transactions and queries outside of transactions count as writes.
+ * <p>
+ * The read-only flag is only known once the transaction started, wrap this data source in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the connection is fetched at the first
+ * statement.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica-";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long lagWindowMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+    /**
+     * @param replicas        read data sources, reads go to the primary when empty
+     * @param lagWindowMillis time reads of a thread stay on the primary after its write, {@code 0} - not at all
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, long lagWindowMillis) {
+        if (lagWindowMillis < 0) {
+            throw new IllegalArgumentException("Lag window must not be negative!");
+        }
+
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.lagWindowMillis = lagWindowMillis;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA + i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<DataSource> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    /**
+     * @return whether reads of the current thread go to the primary because of a recent write
+     */
+    public boolean isPinnedToPrimary() {
+        Long written = lastWrite.get();
+        return written != null && System.currentTimeMillis() - written < lagWindowMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return !replicas.isEmpty() && !isPinnedToPrimary() ? REPLICA + Math.floorMod(next.getAndIncrement(),
+                    replicas.size()) : PRIMARY;
+        }
+
+        if (lagWindowMillis > 0) {
+            lastWrite.set(System.currentTimeMillis());
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                // replicas get the changes after the commit, the window starts then
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        lastWrite.set(System.currentTimeMillis());
+                    }
+                });
+            }
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,108 @@
+package net.test.search;
+
+import org.h2.api.Trigger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * H2 trigger on {@code PERSON} keeping {@code PERSON_NAME_GRAM} in sync with {@code PERSON.NAME}, created by
+ * {@code import.sql}.
+ * <p>
+ * Runs in the transaction of the statement that changed the row, so JPQL bulk updates and deletes and plain JDBC
+ * inserts keep the trigrams right too. Hibernate runs {@code import.sql} only when it creates the schema, a schema
+ * managed otherwise or another database has no trigger and {@link #requireInstalled} fails the startup, as
+ * {@code nameContains} would find nothing.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class NameGramTrigger implements Trigger {
+
+    private static final String DELETE_GRAMS = "delete from PERSON_NAME_GRAM where PERSON_ID = ?";
+    private static final String INSERT_GRAM = "insert into PERSON_NAME_GRAM (PERSON_ID, GRAM) values (?, ?)";
+    private static final String SELECT_TRIGGERS = "select count(*) from INFORMATION_SCHEMA.TRIGGERS where TABLE_NAME " +
+            "= ? and JAVA_CLASS = ?";
+
+    private int idIndex;
+    private int nameIndex;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int
+            type) throws SQLException {
+        // column order is up to Hibernate
+        idIndex = columnIndex(conn, schemaName, tableName, "ID");
+        nameIndex = columnIndex(conn, schemaName, tableName, "NAME");
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (oldRow != null && newRow != null && oldRow[idIndex].equals(newRow[idIndex]) && oldRow[nameIndex].equals
+                (newRow[nameIndex])) {
+            return;
+        }
+
+        if (oldRow != null) {
+            try (PreparedStatement delete = conn.prepareStatement(DELETE_GRAMS)) {
+                delete.setObject(1, oldRow[idIndex]);
+                delete.executeUpdate();
+            }
+        }
+
+        if (newRow != null) {
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_GRAM)) {
+                for (String gram : NameGrams.of((String) newRow[nameIndex])) {
+                    insert.setObject(1, newRow[idIndex]);
+                    insert.setString(2, gram);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void remove() {
+    }
+
+    /**
+     * @throws IllegalStateException when the trigger is not created on the table
+     */
+    public static void requireInstalled(DataSource dataSource, String tableName, Class<? extends Trigger>
+            triggerClass) {
+        try (Connection conn = dataSource.getConnection(); PreparedStatement select = conn.prepareStatement
+                (SELECT_TRIGGERS)) {
+            select.setString(1, tableName);
+            select.setString(2, triggerClass.getName());
+            try (ResultSet count = select.executeQuery()) {
+                if (count.next() && count.getInt(1) > 0) {
+                    return;
+                }
+            }
+        } catch (SQLException e) {
+            // not H2
+            throw new IllegalStateException("Cannot look up H2 triggers on " + tableName, e);
+        }
+        throw new IllegalStateException("Trigger " + triggerClass.getName() + " not created on " + tableName + ", " +
+                "see import.sql");
+    }
+
+    /**
+     * @return zero based index of the column in the rows passed to {@link #fire}
+     */
+    public static int columnIndex(Connection conn, String schemaName, String tableName, String columnName) throws
+            SQLException {
+        try (ResultSet columns = conn.getMetaData().getColumns(null, schemaName, tableName, columnName)) {
+            if (!columns.next()) {
+                throw new SQLException("Column " + tableName + "." + columnName + " not found");
+            }
+            return columns.getInt("ORDINAL_POSITION") - 1;
+        }
+    }
+}
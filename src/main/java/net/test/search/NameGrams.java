@@ -0,0 +1,37 @@
+package net.test.search;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Trigrams (substrings of {@link #LENGTH} characters) of names, stored in the {@code PERSON_NAME_GRAM} table so a
+ * contains search becomes an index lookup instead of a {@code LIKE '%value%'} scan.
+ * <p>
+ * A name contains a value only if it has all trigrams of the value, the opposite does not hold ({@code ABCAB} has
+ * all trigrams of {@code ABCABC}) so matches still have to be checked against the name.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public final class NameGrams {
+
+    public static final int LENGTH = 3;
+
+    private NameGrams() {
+    }
+
+    /**
+     * @return distinct trigrams of the value, empty when it is shorter than {@link #LENGTH} or {@code null}
+     */
+    public static Set<String> of(String value) {
+        if (value == null || value.length() < LENGTH) {
+            return Collections.emptySet();
+        }
+
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + LENGTH <= value.length(); i++) {
+            grams.add(value.substring(i, i + LENGTH));
+        }
+        return grams;
+    }
+}
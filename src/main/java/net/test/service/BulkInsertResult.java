@@ -0,0 +1,50 @@
+package net.test.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link BulkInsertService} run.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class BulkInsertResult {
+
+    private final long persons;
+    private final long addresses;
+    private final long elapsedNanos;
+
+    public BulkInsertResult(long persons, long addresses, long elapsedNanos) {
+        this.persons = persons;
+        this.addresses = addresses;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getPersons() {
+        return persons;
+    }
+
+    public long getAddresses() {
+        return addresses;
+    }
+
+    public long getRows() {
+        return persons + addresses;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return inserted rows (persons and addresses) per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getRows() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkInsertResult{" + "persons=" + persons + ", addresses=" + addresses + ", elapsedMillis=" +
+                getElapsedMillis() + ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) + '}';
+    }
+}
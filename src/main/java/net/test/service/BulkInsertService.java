@@ -0,0 +1,85 @@
+package net.test.service;
+
+import net.test.entity.Address;
+import net.test.entity.Person;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Inserts {@link Person} graphs (including {@link Person#getAddresses()}) in bulk.
+ * <p>
+ * Relies on the pooled sequence generators of the entities (one sequence call per allocation) and on ordered JDBC
+ * batching ({@code hibernate.jdbc.batch_size}, {@code hibernate.order_inserts}). The persistence context is flushed
+ * and cleared every {@code batchSize} persons and the transaction is committed every {@code commitInterval} persons,
+ * so neither memory nor the transaction grows with the input. A failure rolls back the current transaction only,
+ * already committed persons stay inserted.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class BulkInsertService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final int batchSize;
+    private final int commitInterval;
+
+    public BulkInsertService(EntityManagerFactory entityManagerFactory, int batchSize, int commitInterval) {
+        if (batchSize < 1 || commitInterval < 1) {
+            throw new IllegalArgumentException("Batch size and commit interval must be positive!");
+        }
+
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = batchSize;
+        this.commitInterval = commitInterval;
+    }
+
+    /**
+     * @param persons new persons, addresses are persisted too and linked to their person
+     */
+    public BulkInsertResult insert(Iterable<Person> persons) {
+        long start = System.nanoTime();
+        long personCount = 0;
+        long addressCount = 0;
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+
+            for (Person person : persons) {
+                entityManager.persist(person);
+                for (Address address : person.getAddresses()) {
+                    address.setPerson(person);
+                    entityManager.persist(address);
+                    addressCount++;
+                }
+                personCount++;
+
+                if (personCount % commitInterval == 0) {
+                    entityManager.getTransaction().commit();
+                    entityManager.clear();
+                    entityManager.getTransaction().begin();
+                } else if (personCount % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+
+            entityManager.getTransaction().commit();
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+        }
+
+        return new BulkInsertResult(personCount, addressCount, System.nanoTime() - start);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getCommitInterval() {
+        return commitInterval;
+    }
+}
@@ -0,0 +1,75 @@
+package net.test.sql;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.sql.SQLQueryFactory;
+import net.test.dto.PersonDTO;
+import net.test.dto.PersonDTOProjection;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Read-only {@code PERSON} queries in plain SQL, straight into {@link PersonDTO} - no entities, no persistence
+ * context, no proxies and no HQL translation. For flat reads, predicates are built by
+ * {@link net.test.predicate.PersonSqlPredicates} like {@link net.test.predicate.PersonPredicates} for JPA.
+ * <p>
+ * Runs on the connection of the current JPA transaction, or of a read-only one of its own, so it sees what the
+ * transaction flushed and is routed like JPA reads. Changes of the persistence context not flushed yet are not seen.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+@Transactional(readOnly = true)
+public class PersonSqlRepository {
+
+    private static final PersonDTOProjection PERSON_DTO = new PersonDTOProjection(SPerson.person.id, SPerson.person
+            .name, SPerson.person.surname);
+
+    private final SQLQueryFactory sqlQueryFactory;
+
+    public PersonSqlRepository(SQLQueryFactory sqlQueryFactory) {
+        this.sqlQueryFactory = sqlQueryFactory;
+    }
+
+    /**
+     * @param predicate       filter of {@link SPerson#person}, may be {@code null}
+     * @param orderSpecifiers ordering, may be empty
+     * @return DTOs of all matching persons
+     */
+    public List<PersonDTO> findAll(Predicate predicate, OrderSpecifier<?>... orderSpecifiers) {
+        return sqlQueryFactory.select(PERSON_DTO).from(SPerson.person).where(predicate).orderBy(orderSpecifiers)
+                .fetch();
+    }
+
+    /**
+     * @param predicate filter of {@link SPerson#person}, may be {@code null}
+     * @return DTO of the matching person, {@code null} if there is none
+     * @throws com.querydsl.core.NonUniqueResultException if more persons match
+     */
+    public PersonDTO findOne(Predicate predicate) {
+        return sqlQueryFactory.select(PERSON_DTO).from(SPerson.person).where(predicate).fetchOne();
+    }
+
+    /**
+     * @return DTO of the person, {@code null} if there is no such person
+     */
+    public PersonDTO findOne(long id) {
+        return findOne(SPerson.person.id.eq(id));
+    }
+
+    /**
+     * @param predicate filter of {@link SPerson#person}, may be {@code null}
+     */
+    public long count(Predicate predicate) {
+        return sqlQueryFactory.select(SPerson.person.id).from(SPerson.person).where(predicate).fetchCount();
+    }
+
+    /**
+     * @return DTOs of persons with an address in the street, each person once
+     */
+    public List<PersonDTO> findAllByStreet(String street, OrderSpecifier<?>... orderSpecifiers) {
+        return sqlQueryFactory.select(PERSON_DTO).distinct().from(SPerson.person).innerJoin(SPerson.person
+                ._addressPersonFk, SAddress.address).where(SAddress.address.street.eq(street)).orderBy
+                (orderSpecifiers).fetch();
+    }
+}
@@ -0,0 +1,53 @@
+package net.test.sql;
+
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.ForeignKey;
+import com.querydsl.sql.PrimaryKey;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+
+import static com.querydsl.core.types.PathMetadataFactory.forVariable;
+
+/**
+ * Querydsl SQL metamodel of the {@code ADDRESS} table mapped by {@link net.test.entity.Address}, see
+ * {@link SPerson}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class SAddress extends RelationalPathBase<SAddress> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final SAddress address = new SAddress("address");
+
+    public final NumberPath<Long> id = createNumber("id", Long.class);
+
+    public final StringPath street = createString("street");
+
+    public final NumberPath<Long> personId = createNumber("personId", Long.class);
+
+    public final PrimaryKey<SAddress> primary = createPrimaryKey(id);
+
+    public final ForeignKey<SPerson> personFk = createForeignKey(personId, "ID");
+
+    public SAddress(String variable) {
+        super(SAddress.class, forVariable(variable), "PUBLIC", "ADDRESS");
+        addMetadata();
+    }
+
+    public SAddress(PathMetadata metadata) {
+        super(SAddress.class, metadata, "PUBLIC", "ADDRESS");
+        addMetadata();
+    }
+
+    private void addMetadata() {
+        addMetadata(id, ColumnMetadata.named("ID").withIndex(1).ofType(Types.BIGINT).withSize(19).notNull());
+        addMetadata(street, ColumnMetadata.named("STREET").withIndex(2).ofType(Types.VARCHAR).withSize(255)
+                .notNull());
+        addMetadata(personId, ColumnMetadata.named("PERSON_ID").withIndex(3).ofType(Types.BIGINT).withSize(19));
+    }
+}
@@ -0,0 +1,53 @@
+package net.test.sql;
+
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.ForeignKey;
+import com.querydsl.sql.PrimaryKey;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+
+import static com.querydsl.core.types.PathMetadataFactory.forVariable;
+
+/**
+ * Querydsl SQL metamodel of the {@code PERSON} table mapped by {@link net.test.entity.Person}, in the form
+ * {@code MetaDataExporter} generates. Checked against the schema Hibernate creates by {@code PersonSqlTests}.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class SPerson extends RelationalPathBase<SPerson> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final SPerson person = new SPerson("person");
+
+    public final NumberPath<Long> id = createNumber("id", Long.class);
+
+    public final StringPath name = createString("name");
+
+    public final StringPath surname = createString("surname");
+
+    public final PrimaryKey<SPerson> primary = createPrimaryKey(id);
+
+    public final ForeignKey<SAddress> _addressPersonFk = createInvForeignKey(id, "PERSON_ID");
+
+    public SPerson(String variable) {
+        super(SPerson.class, forVariable(variable), "PUBLIC", "PERSON");
+        addMetadata();
+    }
+
+    public SPerson(PathMetadata metadata) {
+        super(SPerson.class, metadata, "PUBLIC", "PERSON");
+        addMetadata();
+    }
+
+    private void addMetadata() {
+        addMetadata(id, ColumnMetadata.named("ID").withIndex(1).ofType(Types.BIGINT).withSize(19).notNull());
+        addMetadata(name, ColumnMetadata.named("NAME").withIndex(2).ofType(Types.VARCHAR).withSize(255).notNull());
+        addMetadata(surname, ColumnMetadata.named("SURNAME").withIndex(3).ofType(Types.VARCHAR).withSize(255)
+                .notNull());
+    }
+}
@@ -0,0 +1,5 @@
+-- executed by Hibernate after the schema is created, see net.test.search.NameGramTrigger
+create trigger PERSON_NAME_GRAM_SYNC after insert, update, delete on PERSON for each row call "net.test.search.NameGramTrigger"
+-- see net.test.changes.ChangeFeedTrigger
+create trigger PERSON_CHANGE_FEED after insert, update, delete on PERSON for each row call "net.test.changes.ChangeFeedTrigger"
+create trigger ADDRESS_CHANGE_FEED after insert, update, delete on ADDRESS for each row call "net.test.changes.ChangeFeedTrigger"
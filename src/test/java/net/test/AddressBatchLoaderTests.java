@@ -0,0 +1,147 @@
+package net.test;
+
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@TestPropertySource(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.batch-load.chunk-size=1000"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AddressBatchLoaderTests {
+
+    public static final int PERSONS = 10000;
+
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.batchUpdate("insert into PERSON (id, name, surname) values (?, ?, ?)", new
+                BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, i + 1);
+                ps.setString(2, "NAME" + i);
+                ps.setString(3, "SURNAME" + i);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return PERSONS;
+            }
+        });
+
+        // two addresses per person
+        jdbcTemplate.batchUpdate("insert into ADDRESS (id, street, person_id) values (?, ?, ?)", new
+                BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, i + 1);
+                ps.setString(2, STREET + i);
+                ps.setLong(3, i / 2 + 1);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return 2 * PERSONS;
+            }
+        });
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    // statements: page content, page count, address chunks
+
+    @Test
+    public void testOnePerson() {
+        assertStatements(1, 3);
+    }
+
+    @Test
+    public void testHundredPersons() {
+        assertStatements(100, 3);
+    }
+
+    @Test
+    public void testTenThousandPersons() {
+        // ten chunks of thousand persons
+        assertStatements(PERSONS, 12);
+    }
+
+    @Test
+    public void testPage() {
+        Page<Person> page = personRepository.withAddresses(personRepository.findAll(QPerson.person.id.gt(0L), new
+                PageRequest(3, 20)));
+
+        assertEquals(20, page.getNumberOfElements());
+        for (Person person : page) {
+            assertEquals(2, person.getAddresses().size());
+        }
+    }
+
+    private void assertStatements(int persons, long statements) {
+        List<Person> all = personRepository.withAddresses(personRepository.findAll(new PageRequest(0, persons))
+                .getContent());
+
+        assertEquals(persons, all.size());
+        for (Person person : all) {
+            assertEquals(2, person.getAddresses().size());
+            assertEquals(person, person.getAddresses().iterator().next().getPerson());
+        }
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+    }
+}
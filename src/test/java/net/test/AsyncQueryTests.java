@@ -0,0 +1,122 @@
+package net.test;
+
+import com.querydsl.core.NonUniqueResultException;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.query.AsyncQueryExecutor;
+import net.test.repository.PersonRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.test.predicate.PersonPredicates.nameEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AsyncQueryTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAll();
+
+        for (int i = 0; i < 3; i++) {
+            Person person = new Person();
+            person.setName(NAME + i);
+            person.setSurname(SURNAME);
+            personRepository.save(person);
+        }
+    }
+
+    @Test
+    public void testFindOneAsync() throws Exception {
+        Person person = personRepository.findOneAsync(nameEquals(NAME + 1)).get();
+
+        assertEquals(NAME + 1, person.getName());
+    }
+
+    @Test
+    public void testFindAllAsync() throws Exception {
+        Iterable<Person> persons = personRepository.findAllAsync(QPerson.person.surname.eq(SURNAME)).get();
+
+        int count = 0;
+        for (Person ignored : persons) {
+            count++;
+        }
+        assertEquals(3, count);
+    }
+
+    @Test
+    public void testFindAllAsyncPaged() throws Exception {
+        Page<Person> page = personRepository.findAllAsync(QPerson.person.surname.eq(SURNAME), new PageRequest(1, 2))
+                .get();
+
+        assertEquals(1, page.getNumberOfElements());
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    public void testCountAsync() throws Exception {
+        assertEquals(3L, (long) personRepository.countAsync(QPerson.person.surname.eq(SURNAME)).get());
+    }
+
+    @Test
+    public void testExceptionCompletesFuture() throws Exception {
+        try {
+            personRepository.findOneAsync(QPerson.person.surname.eq(SURNAME)).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NonUniqueResultException);
+        }
+    }
+
+    @Test
+    public void testConcurrencyBounded() throws Exception {
+        AsyncQueryExecutor executor = new AsyncQueryExecutor(2, true);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(executor.submit(() -> {
+                    int current = running.incrementAndGet();
+                    maxRunning.accumulateAndGet(current, Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return current;
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).get();
+
+            assertTrue(maxRunning.get() <= 2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package net.test;
+
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import net.test.service.BulkInsertResult;
+import net.test.service.BulkInsertService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@TestPropertySource(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.bulk-insert.commit-interval=300"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BulkInsertServiceTests {
+
+    public static final int PERSONS = 1000;
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private BulkInsertService bulkInsertService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testInsert() {
+        BulkInsertResult result = bulkInsertService.insert(persons(PERSONS));
+
+        assertEquals(PERSONS, result.getPersons());
+        assertEquals(2 * PERSONS, result.getAddresses());
+        assertTrue(result.getRowsPerSecond() > 0);
+
+        assertEquals(PERSONS, personRepository.count());
+        assertEquals(2 * PERSONS, addressRepository.count());
+
+        Person person = personRepository.findOne(QPerson.person.name.eq(NAME + 7));
+        assertEquals(2, personRepository.withAddresses(Collections.singletonList(person)).get(0).getAddresses()
+                .size());
+    }
+
+    @Test
+    public void testBatchedStatements() {
+        bulkInsertService.insert(persons(PERSONS));
+
+        // 3000 inserts in batches of 50 plus one sequence call per 50 ids, not a statement per row
+        assertEquals(3 * PERSONS, statistics.getEntityInsertCount());
+        assertTrue("Too many statements: " + statistics.getPrepareStatementCount(), statistics
+                .getPrepareStatementCount() <= 3 * PERSONS / 50 * 2 + 10);
+    }
+
+    private static List<Person> persons(int count) {
+        List<Person> persons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Person person = new Person();
+            person.setName(NAME + i);
+            person.setSurname(SURNAME + i);
+
+            for (int j = 0; j < 2; j++) {
+                Address address = new Address();
+                address.setStreet(STREET + i + "/" + j);
+                person.getAddresses().add(address);
+            }
+
+            persons.add(person);
+        }
+        return persons;
+    }
+}
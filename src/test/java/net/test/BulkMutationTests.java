@@ -0,0 +1,126 @@
+package net.test;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QAddress;
+import net.test.entity.QPerson;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BulkMutationTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        for (int i = 0; i < 3; i++) {
+            Person person = new Person();
+            person.setName(NAME + i);
+            person.setSurname(SURNAME);
+            personRepository.save(person);
+
+            Address address = new Address();
+            address.setStreet(STREET + i);
+            address.setPerson(person);
+            addressRepository.save(address);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testDeleteAll() {
+        // addresses are deleted too, no manual delete needed
+        long deleted = personRepository.deleteAll(QPerson.person.name.in(NAME + 0, NAME + 1));
+
+        assertEquals(2, deleted);
+        assertEquals(1, personRepository.count());
+        assertEquals(1, addressRepository.count());
+    }
+
+    @Test
+    @javax.transaction.Transactional
+    public void testDeleteAllDetachesManaged() {
+        Person deleted = personRepository.findOne(QPerson.person.name.eq(NAME + 0));
+        Address deletedAddress = new JPAQueryFactory(entityManager).selectFrom(QAddress.address).where(QAddress
+                .address.street.eq(STREET + 0)).fetchOne();
+        Person kept = personRepository.findOne(QPerson.person.name.eq(NAME + 2));
+
+        personRepository.deleteAll(QPerson.person.name.eq(NAME + 0));
+
+        assertFalse(entityManager.contains(deleted));
+        assertFalse(entityManager.contains(deletedAddress));
+        assertTrue(entityManager.contains(kept));
+        assertNull(personRepository.findOne(deleted.getId()));
+    }
+
+    @Test
+    @javax.transaction.Transactional
+    public void testUpdateAllRefreshesManaged() {
+        Person updated = personRepository.findOne(QPerson.person.name.eq(NAME + 0));
+        Person kept = personRepository.findOne(QPerson.person.name.eq(NAME + 1));
+
+        long count = personRepository.updateAll(QPerson.person.name.eq(NAME + 0), Collections.singletonMap(QPerson
+                .person.surname, NAME));
+
+        // no entityManager.refresh needed
+        assertEquals(1, count);
+        assertEquals(NAME, updated.getSurname());
+        assertEquals(SURNAME, kept.getSurname());
+    }
+
+    @Test
+    public void testUpdateAllExpression() {
+        Map<Path<?>, Object> assignments = new HashMap<>();
+        assignments.put(QPerson.person.surname, QPerson.person.name.concat("-X"));
+
+        long count = personRepository.updateAll(null, assignments);
+
+        assertEquals(3, count);
+        assertEquals(NAME + 1 + "-X", personRepository.findOne(QPerson.person.name.eq(NAME + 1)).getSurname());
+    }
+}
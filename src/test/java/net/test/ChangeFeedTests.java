@@ -0,0 +1,221 @@
+package net.test;
+
+import com.querydsl.core.types.Path;
+import net.test.changes.ChangeBatch;
+import net.test.changes.ChangeFeed;
+import net.test.changes.ChangeFeedTrigger;
+import net.test.entity.Address;
+import net.test.entity.ChangeEvent;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import net.test.search.NameGramTrigger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ChangeFeedTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long cursor;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        // skip changes of other tests
+        cursor = skipAll();
+    }
+
+    @Test
+    public void testRepositoryWrites() {
+        Person person = save(NAME);
+        Address address = new Address();
+        address.setStreet(STREET);
+        address.setPerson(person);
+        addressRepository.save(address);
+
+        person.setSurname(SURNAME + 1);
+        personRepository.save(person);
+        addressRepository.delete(address);
+
+        assertEquals(Arrays.asList("PERSON INSERT " + person.getId(), "ADDRESS INSERT " + address.getId(), "PERSON " +
+                "UPDATE " + person.getId(), "ADDRESS DELETE " + address.getId()), describe(changeFeed.read(cursor,
+                1000).getEvents()));
+    }
+
+    @Test
+    public void testBulkStatements() {
+        Person first = save(NAME + 1);
+        Person second = save(NAME + 2);
+        cursor = skipAll();
+
+        personRepository.updateAll(QPerson.person.name.startsWith(NAME), Collections.<Path<?>, Object>singletonMap
+                (QPerson.person.surname, SURNAME + 1));
+        personRepository.deleteAll(QPerson.person.name.eq(NAME + 1));
+        jdbcTemplate.update("update PERSON set SURNAME = ? where ID = ?", SURNAME + 2, second.getId());
+
+        List<String> events = describe(changeFeed.read(cursor, 1000).getEvents());
+
+        assertEquals(4, events.size());
+        assertTrue(events.subList(0, 2).containsAll(Arrays.asList("PERSON UPDATE " + first.getId(), "PERSON UPDATE "
+                + second.getId())));
+        assertEquals(Arrays.asList("PERSON DELETE " + first.getId(), "PERSON UPDATE " + second.getId()), events
+                .subList(2, 4));
+    }
+
+    @Test
+    public void testResumableInBatches() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(save(NAME + i).getId());
+        }
+
+        List<Long> rowIds = new ArrayList<>();
+        ChangeBatch batch;
+        do {
+            batch = changeFeed.read(cursor, 3);
+            assertTrue(batch.getEvents().size() <= 3);
+            for (ChangeEvent event : batch.getEvents()) {
+                rowIds.add(event.getRowId());
+            }
+            cursor = batch.getCursor();
+        } while (!batch.isEmpty());
+
+        assertEquals(ids, rowIds);
+        assertTrue(changeFeed.read(cursor, 3).isEmpty());
+    }
+
+    @Test
+    public void testRolledBackChangesNotRecorded() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> {
+            save(NAME);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertTrue(changeFeed.read(cursor, 1000).isEmpty());
+    }
+
+    @Test
+    public void testPositionedInCommitOrder() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // event of the outer transaction gets the lower id, but commits after the inner one is read
+        Long id = transactionTemplate.execute(status -> {
+            Long outerId = save(NAME + 1).getId();
+            personRepository.flush();
+
+            Thread other = new Thread(() -> {
+                save(NAME + 2);
+                cursor = changeFeed.read(cursor, 1000).getCursor();
+            });
+            other.start();
+            try {
+                other.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return outerId;
+        });
+
+        List<ChangeEvent> events = changeFeed.read(cursor, 1000).getEvents();
+        assertEquals(1, events.size());
+        assertEquals(id, events.get(0).getRowId());
+    }
+
+    @Test
+    public void testPurge() {
+        save(NAME + 1);
+        save(NAME + 2);
+        ChangeBatch batch = changeFeed.read(cursor, 1000);
+
+        changeFeed.purge(batch.getCursor());
+        save(NAME + 3);
+
+        List<ChangeEvent> events = changeFeed.read(batch.getCursor(), 1000).getEvents();
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).getPosition() > batch.getCursor());
+    }
+
+    @Test
+    public void testTriggersRequired() {
+        NameGramTrigger.requireInstalled(dataSource, "PERSON", ChangeFeedTrigger.class);
+        NameGramTrigger.requireInstalled(dataSource, "ADDRESS", ChangeFeedTrigger.class);
+
+        try {
+            NameGramTrigger.requireInstalled(dataSource, "ROLLUP_STATE", ChangeFeedTrigger.class);
+            fail("Missing trigger not detected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private Person save(String name) {
+        Person person = new Person();
+        person.setName(name);
+        person.setSurname(SURNAME);
+        return personRepository.save(person);
+    }
+
+    private long skipAll() {
+        ChangeBatch batch = changeFeed.read(cursor, 1000);
+        while (!batch.isEmpty()) {
+            batch = changeFeed.read(batch.getCursor(), 1000);
+        }
+        return batch.getCursor();
+    }
+
+    private static List<String> describe(List<ChangeEvent> events) {
+        List<String> result = new ArrayList<>();
+        for (ChangeEvent event : events) {
+            result.add(event.getTableName() + " " + event.getOperation() + " " + event.getRowId());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+package net.test;
+
+import com.querydsl.jpa.JPAExpressions;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.query.CompiledQueryCache;
+import net.test.repository.PersonRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static net.test.predicate.PersonPredicates.nameEquals;
+import static net.test.predicate.PersonPredicates.nameLike;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CompiledQueryCacheTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private CompiledQueryCache compiledQueryCache;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAll();
+        compiledQueryCache.clear();
+
+        for (int i = 0; i < 3; i++) {
+            Person person = new Person();
+            person.setName(NAME + i);
+            person.setSurname(SURNAME + i);
+            personRepository.save(person);
+        }
+    }
+
+    @Test
+    public void testSameShapeDifferentValues() {
+        long hits = compiledQueryCache.getHitCount();
+        long misses = compiledQueryCache.getMissCount();
+
+        List<Person> first = personRepository.findAllCompiled(nameEquals(NAME + 0).and(nameLike(NAME)));
+        List<Person> second = personRepository.findAllCompiled(nameEquals(NAME + 1).and(nameLike(NAME)));
+
+        assertEquals(1, first.size());
+        assertEquals(NAME + 0, first.get(0).getName());
+        assertEquals(1, second.size());
+        assertEquals(NAME + 1, second.get(0).getName());
+
+        assertEquals(misses + 1, compiledQueryCache.getMissCount());
+        assertEquals(hits + 1, compiledQueryCache.getHitCount());
+    }
+
+    @Test
+    public void testDifferentShapes() {
+        long misses = compiledQueryCache.getMissCount();
+
+        personRepository.findAllCompiled(nameEquals(NAME + 0));
+        personRepository.findAllCompiled(nameLike(NAME));
+
+        assertEquals(misses + 2, compiledQueryCache.getMissCount());
+    }
+
+    @Test
+    public void testRepeatedConstant() {
+        QPerson person = QPerson.person;
+
+        // same value twice is serialized as one JPQL parameter, the next call must not reuse it for both
+        personRepository.findAllCompiled(person.name.eq(NAME + 0).or(person.surname.eq(NAME + 0)));
+        List<Person> all = personRepository.findAllCompiled(person.name.eq(NAME + 0).or(person.surname.eq(SURNAME +
+                1)));
+
+        assertEquals(2, all.size());
+    }
+
+    @Test
+    public void testInCollections() {
+        QPerson person = QPerson.person;
+
+        assertEquals(2, personRepository.findAllCompiled(person.name.in(Arrays.asList(NAME + 0, NAME + 1))).size());
+        assertEquals(1, personRepository.findAllCompiled(person.name.in(Arrays.asList(NAME + 2, "X"))).size());
+        assertTrue(personRepository.findAllCompiled(person.name.in(Collections.<String>emptyList())).isEmpty());
+    }
+
+    @Test
+    public void testSubqueryNotCached() {
+        QPerson p = new QPerson("p");
+        long uncacheable = compiledQueryCache.getUncacheableCount();
+
+        List<Person> all = personRepository.findAllCompiled(QPerson.person.name.eq(JPAExpressions.select(p.name.max
+                ()).from(p)));
+
+        assertEquals(1, all.size());
+        assertEquals(NAME + 2, all.get(0).getName());
+        assertEquals(uncacheable + 1, compiledQueryCache.getUncacheableCount());
+    }
+
+    @Test
+    public void testLikeWildcardsEscaped() {
+        QPerson person = QPerson.person;
+        for (String name : Arrays.asList("a%c", "a_b", "axb")) {
+            Person wildcard = new Person();
+            wildcard.setName(name);
+            wildcard.setSurname(SURNAME);
+            personRepository.save(wildcard);
+        }
+
+        assertNames(personRepository.findAll(person.name.startsWith("a_")), "a_b");
+        assertNames(personRepository.findAllCompiled(person.name.startsWith("a_")), "a_b");
+        assertNames(personRepository.findAllCompiled(person.name.startsWith("a")), "a%c", "a_b", "axb");
+        assertNames(personRepository.findAllCompiled(person.name.contains("%")), "a%c");
+        assertNames(personRepository.findAllCompiled(person.name.endsWith("_B")));
+        assertNames(personRepository.findAllCompiled(person.name.endsWithIgnoreCase("_B")), "a_b");
+        assertNames(personRepository.findAllCompiled(person.name.containsIgnoreCase("%C")), "a%c");
+    }
+
+    @Test
+    public void testEmptyPredicate() {
+        assertEquals(3, personRepository.findAllCompiled(nameLike(null)).size());
+    }
+
+    private static void assertNames(Iterable<Person> persons, String... names) {
+        Set<String> actual = new HashSet<>();
+        for (Person person : persons) {
+            actual.add(person.getName());
+        }
+        assertEquals(new HashSet<>(Arrays.asList(names)), actual);
+    }
+}
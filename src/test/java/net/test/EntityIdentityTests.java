@@ -0,0 +1,159 @@
+package net.test;
+
+import net.test.dto.PersonDTO;
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import org.hibernate.Hibernate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EntityIdentityTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @After
+    public void tearDown() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testAddressesMembershipSurvivesSave() {
+        Person person = personRepository.save(person(NAME));
+        Address address = new Address();
+        address.setStreet(STREET);
+        address.setPerson(person);
+        person.getAddresses().add(address);
+        int hash = address.hashCode();
+
+        addressRepository.save(address);
+
+        assertEquals(hash, address.hashCode());
+        assertTrue(person.getAddresses().contains(address));
+        assertTrue(person.getAddresses().remove(address));
+    }
+
+    @Test
+    public void testMembershipSurvivesSaveAndChanges() {
+        Person person = person(NAME);
+        Set<Person> persons = new HashSet<>();
+        persons.add(person);
+
+        personRepository.save(person);
+        person.setName(NAME + 2);
+
+        assertTrue(persons.contains(person));
+    }
+
+    @Test
+    public void testEqualById() {
+        Person saved = personRepository.save(person(NAME));
+        Person loaded = personRepository.findOne(saved.getId());
+
+        assertEquals(saved, loaded);
+        assertEquals(saved.hashCode(), loaded.hashCode());
+
+        // other state is not part of the identity
+        loaded.setSurname(SURNAME + 2);
+        assertEquals(saved, loaded);
+        assertNotEquals(saved, personRepository.save(person(NAME)));
+    }
+
+    @Test
+    public void testHashedWithoutIdEqualOnlyToItself() {
+        Person person = person(NAME);
+        int hash = person.hashCode();
+        personRepository.save(person);
+
+        Person loaded = personRepository.findOne(person.getId());
+        assertNotEquals(person, loaded);
+        assertNotEquals(loaded, person);
+        assertEquals(hash, person.hashCode());
+        assertEquals(person, person);
+    }
+
+    @Test
+    public void testTransientNotEqual() {
+        assertNotEquals(person(NAME), person(NAME));
+    }
+
+    @Test
+    public void testProxyNotInitialized() {
+        Person saved = personRepository.save(person(NAME));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Person proxy = entityManager.getReference(Person.class, saved.getId());
+
+            assertEquals(proxy, saved);
+            assertEquals(saved, proxy);
+            assertEquals(saved.hashCode(), proxy.hashCode());
+            assertFalse(Hibernate.isInitialized(proxy));
+
+            Address address = new Address();
+            address.setId(saved.getId());
+            assertNotEquals(address, proxy);
+            return null;
+        });
+    }
+
+    @Test
+    public void testDtoEqualByValue() {
+        PersonDTO dto = new PersonDTO(1L, NAME, SURNAME);
+
+        assertEquals(new PersonDTO(1L, NAME, SURNAME), dto);
+        assertEquals(new PersonDTO(1L, NAME, SURNAME).hashCode(), dto.hashCode());
+        assertNotEquals(new PersonDTO(1L, NAME, SURNAME + 2), dto);
+        assertNotEquals(new PersonDTO(2L, NAME, SURNAME), dto);
+    }
+
+    private static Person person(String name) {
+        Person person = new Person();
+        person.setName(name);
+        person.setSurname(SURNAME);
+        return person;
+    }
+}
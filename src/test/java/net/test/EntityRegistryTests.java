@@ -0,0 +1,96 @@
+package net.test;
+
+import net.test.bootstrap.EntityRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EntityRegistryTests {
+
+    @Autowired
+    private EntityRegistry entityRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Autowired
+    private JpaProperties jpaProperties;
+
+    @Test
+    public void testRegistryWrittenByBuild() {
+        assertNotNull(EntityRegistry.load(getClass().getClassLoader()));
+        assertFalse(entityRegistry.getEntityClassNames().isEmpty());
+    }
+
+    @Test
+    public void testSameEntitiesAsScanning() {
+        // the persistence unit Spring Boot builds with app.bootstrap.entity-registry=false
+        LocalContainerEntityManagerFactoryBean scanning = new LocalContainerEntityManagerFactoryBean();
+        scanning.setDataSource(dataSource);
+        scanning.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        Map<String, String> properties = jpaProperties.getHibernateProperties(dataSource);
+        // the schema belongs to the application context
+        properties.remove("hibernate.hbm2ddl.auto");
+        scanning.setJpaPropertyMap(properties);
+        scanning.setPackagesToScan(AutoConfigurationPackages.get(beanFactory).toArray(new String[0]));
+        scanning.afterPropertiesSet();
+        try {
+            assertEquals(entities(scanning.getObject()), entities(entityManagerFactory));
+        } finally {
+            scanning.destroy();
+        }
+    }
+
+    @Test
+    public void testNamedQueriesParse() {
+        assertFalse(entityRegistry.getNamedQueries().isEmpty());
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (Map.Entry<String, String> query : entityRegistry.getNamedQueries().entrySet()) {
+                entityManager.createNamedQuery(query.getKey());
+                entityManager.createQuery(query.getValue());
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static Set<String> entities(EntityManagerFactory entityManagerFactory) {
+        Set<String> entities = new TreeSet<>();
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            entities.add(entity.getJavaType().getName());
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,173 @@
+package net.test;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QAddress;
+import net.test.entity.QPerson;
+import net.test.predicate.InMemoryPredicates;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static net.test.predicate.PersonPredicates.nameContains;
+import static net.test.predicate.PersonPredicates.nameEquals;
+import static net.test.predicate.PersonPredicates.nameLike;
+import static net.test.predicate.PersonPredicates.nameStartsWith;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class InMemoryPredicateTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private JPAQueryFactory jpaQueryFactory;
+
+    private List<Person> persons;
+    private List<Address> addresses;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        for (int i = 0; i < 30; i++) {
+            Person person = new Person();
+            person.setName((i % 2 == 0 ? NAME : "name_") + i);
+            person.setSurname(SURNAME + (i % 4));
+            personRepository.save(person);
+
+            // 0, 1 or 2 addresses
+            for (int j = 0; j < i % 3; j++) {
+                Address address = new Address();
+                address.setStreet(STREET + (i + j) % 5);
+                address.setPerson(person);
+                addressRepository.save(address);
+            }
+        }
+        Address homeless = new Address();
+        homeless.setStreet(STREET + 0);
+        addressRepository.save(homeless);
+
+        persons = personRepository.withAddresses(personRepository.findAll());
+        addresses = addressRepository.findAll();
+    }
+
+    @After
+    public void tearDown() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testPersonPredicates() {
+        QPerson person = QPerson.person;
+        Long id = persons.get(10).getId();
+
+        assertSameAsJpql(nameEquals(NAME + 4));
+        assertSameAsJpql(nameLike(NAME + 1));
+        assertSameAsJpql(nameStartsWith("name_"));
+        assertSameAsJpql(nameEquals(null));
+        assertSameAsJpql(person.name.like("%E_1%"));
+        assertSameAsJpql(person.name.like("name!_%", '!'));
+        assertSameAsJpql(person.name.likeIgnoreCase("name%"));
+        assertSameAsJpql(person.name.containsIgnoreCase("e_2"));
+        assertSameAsJpql(person.name.endsWith("3"));
+        assertSameAsJpql(person.name.lower().eq("name2"));
+        assertSameAsJpql(person.name.length().gt(6));
+        assertSameAsJpql(person.surname.in(SURNAME + 1, SURNAME + 3));
+        assertSameAsJpql(person.surname.notIn(SURNAME + 1, SURNAME + 3));
+        assertSameAsJpql(person.id.goe(id).and(person.id.lt(id + 5)));
+        assertSameAsJpql(person.id.between(id, id + 3).or(person.surname.eq(SURNAME + 2)));
+        assertSameAsJpql(person.id.gt(id.intValue()));
+        assertSameAsJpql(person.surname.ne(SURNAME + 0).not());
+        assertSameAsJpql(person.addresses.isEmpty());
+        assertSameAsJpql(person.addresses.size().eq(2));
+        assertSameAsJpql(person.addresses.any().street.eq(STREET + 2));
+        assertSameAsJpql(person.addresses.any().street.eq(STREET + 2).and(person.addresses.any().street.eq(STREET
+                + 3)));
+        assertSameAsJpql(person.addresses.any().street.ne(STREET + 1).not());
+    }
+
+    @Test
+    public void testAddressPredicates() {
+        QAddress address = QAddress.address;
+
+        assertSameAsJpqlForAddresses(address.street.eq(STREET + 0));
+        assertSameAsJpqlForAddresses(address.person.isNull());
+        assertSameAsJpqlForAddresses(address.person.name.startsWith(NAME));
+        assertSameAsJpqlForAddresses(address.person.surname.eq(SURNAME + 1).or(address.street.eq(STREET + 4)));
+        assertSameAsJpqlForAddresses(address.person.name.endsWith("2").not());
+    }
+
+    @Test
+    public void testParallelStream() {
+        Predicate predicate = QPerson.person.name.startsWith(NAME).and(QPerson.person.addresses.isNotEmpty());
+
+        assertEquals(jpqlIds(predicate), ids(persons.parallelStream().filter(InMemoryPredicates.compile(QPerson
+                .person, predicate)).collect(Collectors.toList())));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSubqueryNotSupported() {
+        InMemoryPredicates.compile(QPerson.person, nameContains(NAME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOtherRootNotSupported() {
+        InMemoryPredicates.compile(QPerson.person, new QPerson("other").name.eq(NAME));
+    }
+
+    private void assertSameAsJpql(Predicate predicate) {
+        assertEquals(predicate.toString(), jpqlIds(predicate), ids(persons.stream().filter(InMemoryPredicates.compile
+                (QPerson.person, predicate)).collect(Collectors.toList())));
+    }
+
+    private void assertSameAsJpqlForAddresses(Predicate predicate) {
+        assertEquals(predicate.toString(), addressIds(jpaQueryFactory.selectFrom(QAddress.address).where(predicate)
+                .fetch()), addressIds(addresses.stream().filter(InMemoryPredicates.compile(QAddress.address,
+                predicate)).collect(Collectors.toList())));
+    }
+
+    private Set<Long> jpqlIds(Predicate predicate) {
+        return ids(personRepository.findAll(predicate));
+    }
+
+    private static Set<Long> ids(Iterable<Person> persons) {
+        Set<Long> ids = new TreeSet<>();
+        for (Person person : persons) {
+            ids.add(person.getId());
+        }
+        return ids;
+    }
+
+    private static Set<Long> addressIds(List<Address> addresses) {
+        return addresses.stream().map(Address::getId).collect(Collectors.toCollection(TreeSet::new));
+    }
+}
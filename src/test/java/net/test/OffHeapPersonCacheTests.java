@@ -0,0 +1,180 @@
+package net.test;
+
+import com.querydsl.core.types.Path;
+import net.test.cache.OffHeapPersonCache;
+import net.test.dto.PersonDTO;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.repository.PersonRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OffHeapPersonCacheTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private OffHeapPersonCache offHeapPersonCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Person person;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAll();
+        offHeapPersonCache.invalidateAll();
+
+        person = new Person();
+        person.setName(NAME);
+        person.setSurname(SURNAME);
+        personRepository.save(person);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        OffHeapPersonCache cache = new OffHeapPersonCache(10, 1024);
+        cache.put(1, NAME, SURNAME);
+        cache.put(2, "Žluťoučký kůň", null);
+        cache.put(1, NAME + 1, SURNAME);
+
+        assertEquals(new PersonDTO(1L, NAME + 1, SURNAME), cache.get(1));
+        assertEquals(new PersonDTO(2L, "Žluťoučký kůň", null), cache.get(2));
+        assertNull(cache.get(3));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.statistics().getHits());
+        assertEquals(1, cache.statistics().getMisses());
+        assertEquals(3, cache.statistics().getPuts());
+    }
+
+    @Test
+    public void testEvictsOldestByEntries() {
+        OffHeapPersonCache cache = new OffHeapPersonCache(100, 1 << 16);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, NAME + i, SURNAME);
+        }
+
+        assertEquals(100, cache.size());
+        assertEquals(900, cache.getEvictions());
+        assertNull(cache.get(899));
+        for (int i = 900; i < 1000; i++) {
+            assertEquals(NAME + i, cache.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testEvictsOldestByBytes() {
+        // rows of 27 - 31 bytes, the log wraps around many times at odd positions
+        OffHeapPersonCache cache = new OffHeapPersonCache(1000, 1000);
+        for (int i = 0; i < 5000; i++) {
+            cache.put(i % 700, NAME + i, SURNAME);
+
+            assertEquals(NAME + i, cache.get(i % 700).getName());
+        }
+
+        assertTrue(cache.size() > 25);
+        assertTrue(cache.size() <= 40);
+        for (int i = 5000 - cache.size(); i < 5000; i++) {
+            assertEquals(NAME + i, cache.get(i % 700).getName());
+        }
+        assertNull(cache.get((5000 - cache.size() - 1) % 700));
+    }
+
+    @Test
+    public void testInvalidate() {
+        OffHeapPersonCache cache = new OffHeapPersonCache(100, 1 << 16);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, NAME + i, SURNAME);
+        }
+        long stamp = cache.stamp();
+        for (int i = 0; i < 100; i += 2) {
+            cache.invalidate(i);
+        }
+
+        assertEquals(50, cache.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 1, cache.get(i) != null);
+        }
+        // loaded before the invalidation
+        assertFalse(cache.put(0, NAME, SURNAME, stamp));
+        assertNull(cache.get(0));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void testFindDtoCached() {
+        assertEquals(new PersonDTO(person.getId(), NAME, SURNAME), personRepository.findDtoCached(person.getId()));
+        assertNotNull(offHeapPersonCache.get(person.getId()));
+        assertNull(personRepository.findDtoCached(person.getId() + 1));
+    }
+
+    @Test
+    public void testNotCachedInReadWriteTransaction() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            person.setName(NAME + 1);
+            personRepository.saveAndFlush(person);
+
+            assertEquals(NAME + 1, personRepository.findDtoCached(person.getId()).getName());
+            assertNull(offHeapPersonCache.get(person.getId()));
+
+            status.setRollbackOnly();
+            return null;
+        });
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.execute(status -> personRepository.findDtoCached(person.getId()));
+        assertEquals(NAME, offHeapPersonCache.get(person.getId()).getName());
+    }
+
+    @Test
+    public void testInvalidatedBySaveAndDelete() {
+        personRepository.findDtoCached(person.getId());
+
+        person.setName(NAME + 1);
+        personRepository.save(person);
+        assertEquals(NAME + 1, personRepository.findDtoCached(person.getId()).getName());
+
+        personRepository.delete(person.getId());
+        assertNull(personRepository.findDtoCached(person.getId()));
+    }
+
+    @Test
+    public void testInvalidatedByBulkStatements() {
+        personRepository.findDtoCached(person.getId());
+
+        personRepository.updateAll(QPerson.person.id.eq(person.getId()), Collections.<Path<?>, Object>singletonMap
+                (QPerson.person.name, NAME + 1));
+        assertEquals(NAME + 1, personRepository.findDtoCached(person.getId()).getName());
+
+        personRepository.deleteAll(QPerson.person.name.eq(NAME + 1));
+        assertNull(personRepository.findDtoCached(person.getId()));
+    }
+}
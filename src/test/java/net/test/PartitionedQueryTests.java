@@ -0,0 +1,99 @@
+package net.test;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.query.PartitionedQueryExecutor;
+import net.test.repository.PersonRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PartitionedQueryTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAll();
+
+        for (int i = 0; i < 100; i++) {
+            Person person = new Person();
+            // names do not follow ids, merged partitions have to be sorted
+            person.setName(NAME + (i * 37 % 100));
+            person.setSurname(SURNAME + (i % 3));
+            personRepository.save(person);
+        }
+    }
+
+    @Test
+    public void testFindAllPartitioned() {
+        List<Person> persons = personRepository.findAllPartitioned(QPerson.person.surname.eq(SURNAME + 0));
+
+        Set<Person> expected = new HashSet<>();
+        for (Person person : personRepository.findAll(QPerson.person.surname.eq(SURNAME + 0))) {
+            expected.add(person);
+        }
+        assertEquals(expected, new HashSet<>(persons));
+        assertEquals(34, persons.size());
+    }
+
+    @Test
+    public void testFindAllPartitionedOrdered() {
+        List<Person> persons = personRepository.findAllPartitioned(null, QPerson.person.surname.asc(), QPerson.person
+                .name.desc());
+
+        List<Person> expected = new ArrayList<>();
+        for (Person person : personRepository.findAll((Predicate) null, QPerson.person.surname.asc(), QPerson.person
+                .name.desc())) {
+            expected.add(person);
+        }
+        assertEquals(expected, persons);
+    }
+
+    @Test
+    public void testFindAllPartitionedNoMatch() {
+        assertTrue(personRepository.findAllPartitioned(QPerson.person.name.eq(NAME)).isEmpty());
+    }
+
+    @Test
+    public void testMoreWorkersThanIds() {
+        PartitionedQueryExecutor executor = new PartitionedQueryExecutor(entityManagerFactory, 8);
+        try {
+            List<Person> persons = executor.fetch(QPerson.person, QPerson.person.id, QPerson.person.name.in(NAME +
+                    0, NAME + 37), Collections.<OrderSpecifier<?>>singletonList(QPerson.person.name.asc()));
+
+            assertEquals(2, persons.size());
+            assertEquals(NAME + 0, persons.get(0).getName());
+            assertEquals(NAME + 37, persons.get(1).getName());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package net.test;
+
+import net.test.dto.PersonName;
+import net.test.entity.Person;
+import net.test.query.BatchLoader;
+import net.test.query.LookupResult;
+import net.test.repository.PersonRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "app.batch-lookup.max-parameters=" + PersonBatchLookupTests.MAX_PARAMETERS)
+public class PersonBatchLookupTests {
+
+    public static final int MAX_PARAMETERS = 4;
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAllInBatch();
+
+        for (int i = 0; i < 6; i++) {
+            save(NAME + i, SURNAME + i);
+        }
+        // NAME0 is not unique
+        save(NAME + 0, SURNAME);
+    }
+
+    @After
+    public void tearDown() {
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testByNamesChunkedAndDeduplicated() {
+        StatementCapture.start();
+        LookupResult<String, Person> result = personRepository.findAllByNames(Arrays.asList(NAME + 5, NAME + 1,
+                "MISSING", NAME + 1, NAME + 0, NAME + 2));
+
+        // 5 distinct names, 4 per query
+        assertEquals(2, StatementCapture.stop().size());
+        assertEquals(Arrays.asList(NAME + 5, NAME + 1, "MISSING", NAME + 0, NAME + 2), new ArrayList<>(result.asMap()
+                .keySet()));
+        assertEquals(Collections.singleton("MISSING"), result.getMissing());
+        assertTrue(result.isMissing("MISSING"));
+        assertNull(result.getOne("MISSING"));
+        assertEquals(SURNAME + 1, result.getOne(NAME + 1).getSurname());
+        assertEquals(2, result.get(NAME + 0).size());
+    }
+
+    @Test(expected = IncorrectResultSizeDataAccessException.class)
+    public void testGetOneNotUnique() {
+        personRepository.findAllByNames(Collections.singleton(NAME + 0)).getOne(NAME + 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeyNotRequested() {
+        personRepository.findAllByNames(Collections.singleton(NAME + 0)).get(NAME + 1);
+    }
+
+    @Test(expected = InvalidDataAccessApiUsageException.class)
+    public void testNullKey() {
+        personRepository.findAllByNames(Arrays.asList(NAME + 0, null));
+    }
+
+    @Test
+    public void testByFullNames() {
+        PersonName first = new PersonName(NAME + 0, SURNAME);
+        PersonName second = new PersonName(NAME + 3, SURNAME + 3);
+        // both parts exist, not together
+        PersonName crossed = new PersonName(NAME + 3, SURNAME + 4);
+
+        StatementCapture.start();
+        LookupResult<PersonName, Person> result = personRepository.findAllByFullNames(Arrays.asList(first, second,
+                crossed));
+
+        // 2 parameters per pair, 2 pairs per query
+        assertEquals(2, StatementCapture.stop().size());
+        assertEquals(1, result.get(first).size());
+        assertEquals(NAME + 3, result.getOne(second).getName());
+        assertEquals(Collections.singleton(crossed), result.getMissing());
+    }
+
+    @Test
+    public void testLoaderDispatchesOneBatch() {
+        BatchLoader<String, Person> loader = personRepository.nameLoader();
+        CompletableFuture<List<Person>> first = loader.load(NAME + 1);
+        CompletableFuture<List<Person>> missing = loader.load("MISSING");
+
+        assertSame(first, loader.load(NAME + 1));
+        assertEquals(2, loader.getPendingCount());
+        assertFalse(first.isDone());
+
+        StatementCapture.start();
+        loader.dispatch();
+        // already loaded, not looked up again
+        List<Person> again = loader.get(NAME + 1);
+
+        assertEquals(1, StatementCapture.stop().size());
+        assertEquals(0, loader.getPendingCount());
+        assertEquals(SURNAME + 1, first.join().get(0).getSurname());
+        assertSame(first.join(), again);
+        assertTrue(missing.join().isEmpty());
+    }
+
+    @Test
+    public void testLoaderCoalescesConcurrentGets() throws Exception {
+        BatchLoader<String, Person> loader = personRepository.nameLoader();
+        int threads = 6;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<List<Person>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String name = NAME + i;
+                results.add(executorService.submit(() -> {
+                    start.await();
+                    return loader.get(name);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < threads; i++) {
+                List<Person> persons = results.get(i).get(10, TimeUnit.SECONDS);
+                assertEquals(i == 0 ? 2 : 1, persons.size());
+                assertEquals(NAME + i, persons.get(0).getName());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void save(String name, String surname) {
+        Person person = new Person();
+        person.setName(name);
+        person.setSurname(surname);
+        personRepository.save(person);
+    }
+}
@@ -0,0 +1,202 @@
+package net.test;
+
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.paging.KeysetPage;
+import net.test.paging.KeysetPageRequest;
+import net.test.query.FetchProfile;
+import net.test.query.FetchStrategy;
+import net.test.query.PersonFetchProfiles;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import org.hibernate.Hibernate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "app.batch-load.chunk-size=" + PersonFetchProfileTests.CHUNK_SIZE)
+public class PersonFetchProfileTests {
+
+    public static final int CHUNK_SIZE = 2;
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    private Person mostAddresses;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        // persons with 0, 1, 2 and 3 addresses
+        for (int i = 0; i < 4; i++) {
+            Person person = new Person();
+            person.setName(NAME + i);
+            person.setSurname(SURNAME);
+            personRepository.save(person);
+
+            for (int j = 0; j < i; j++) {
+                Address address = new Address();
+                address.setStreet(STREET + j);
+                address.setPerson(person);
+                addressRepository.save(address);
+            }
+
+            if (i == 3) {
+                mostAddresses = person;
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testSummaryLeavesAddressesLazy() {
+        StatementCapture.start();
+        List<Person> persons = personRepository.findAll(QPerson.person.surname.eq(SURNAME), PersonFetchProfiles
+                .SUMMARY);
+
+        assertEquals(1, StatementCapture.stop().size());
+        assertEquals(4, persons.size());
+        for (Person person : persons) {
+            assertFalse(Hibernate.isInitialized(person.getAddresses()));
+        }
+    }
+
+    @Test
+    public void testFindOneJoinFetched() {
+        StatementCapture.start();
+        Person person = personRepository.findOne(QPerson.person.id.eq(mostAddresses.getId()), PersonFetchProfiles
+                .WITH_ADDRESSES);
+
+        assertEquals(1, StatementCapture.stop().size());
+        // detached, read after the transaction
+        assertEquals(3, person.getAddresses().size());
+    }
+
+    @Test
+    public void testSmallResultBatchLoaded() {
+        StatementCapture.start();
+        List<Person> persons = personRepository.findAll(QPerson.person.name.in(NAME + 2, NAME + 3),
+                PersonFetchProfiles.WITH_ADDRESSES, QPerson.person.name.asc());
+
+        // persons, one chunk of addresses
+        assertEquals(2, StatementCapture.stop().size());
+        assertAddresses(persons, 2);
+    }
+
+    @Test
+    public void testLargeResultSubselectLoaded() {
+        StatementCapture.start();
+        List<Person> persons = personRepository.findAll(QPerson.person.surname.eq(SURNAME), PersonFetchProfiles
+                .WITH_ADDRESSES, QPerson.person.name.asc());
+
+        // persons, addresses of persons matching the same predicate, not two chunks
+        List<String> statements = StatementCapture.stop();
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(1).contains("in (select"));
+        assertAddresses(persons, 0);
+    }
+
+    @Test
+    public void testForcedJoinFetch() {
+        StatementCapture.start();
+        List<Person> persons = personRepository.findAll(QPerson.person.surname.eq(SURNAME), PersonFetchProfiles
+                .WITH_ADDRESSES.using(FetchStrategy.JOIN), QPerson.person.name.asc());
+
+        assertEquals(1, StatementCapture.stop().size());
+        assertAddresses(persons, 0);
+    }
+
+    @Test
+    public void testPageBatchLoaded() {
+        StatementCapture.start();
+        Page<Person> page = personRepository.findAll(QPerson.person.surname.eq(SURNAME), new PageRequest(1, 2, new
+                Sort("name")), PersonFetchProfiles.WITH_ADDRESSES);
+
+        // page content, count, one chunk of addresses
+        assertEquals(3, StatementCapture.stop().size());
+        assertEquals(4, page.getTotalElements());
+        assertAddresses(page.getContent(), 2);
+    }
+
+    @Test
+    public void testKeysetPageBatchLoaded() {
+        KeysetPage<Person> page = personRepository.findAll(null, new KeysetPageRequest(3, QPerson.person.name
+                .desc()), PersonFetchProfiles.WITH_ADDRESSES);
+
+        assertEquals(3, page.getNumberOfElements());
+        assertEquals(3, page.getContent().get(0).getAddresses().size());
+        assertEquals(1, page.getContent().get(2).getAddresses().size());
+    }
+
+    @Test(expected = InvalidDataAccessApiUsageException.class)
+    public void testJoinFetchNotPaged() {
+        personRepository.findAll(null, new PageRequest(0, 2), PersonFetchProfiles.WITH_ADDRESSES.using
+                (FetchStrategy.JOIN));
+    }
+
+    @Test(expected = InvalidDataAccessApiUsageException.class)
+    public void testSubselectFetchNotPaged() {
+        personRepository.findAll(null, new KeysetPageRequest(2, QPerson.person.name.asc()), PersonFetchProfiles
+                .WITH_ADDRESSES.using(FetchStrategy.SUBSELECT));
+    }
+
+    @Test
+    public void testStrategyChoice() {
+        FetchProfile profile = PersonFetchProfiles.WITH_ADDRESSES;
+
+        assertEquals(FetchStrategy.BATCH, profile.strategyFor(false, CHUNK_SIZE, CHUNK_SIZE));
+        assertEquals(FetchStrategy.SUBSELECT, profile.strategyFor(false, CHUNK_SIZE + 1, CHUNK_SIZE));
+        assertEquals(FetchStrategy.BATCH, profile.strategyFor(true, CHUNK_SIZE + 1, CHUNK_SIZE));
+        assertEquals(FetchStrategy.SUBSELECT, profile.using(FetchStrategy.SUBSELECT).strategyFor(false, 1,
+                CHUNK_SIZE));
+        assertEquals(FetchStrategy.BATCH, profile.using(FetchStrategy.BATCH).strategyFor(true, CHUNK_SIZE + 1,
+                CHUNK_SIZE));
+    }
+
+    /**
+     * @param persons ordered by name, the person {@code NAME + i} has {@code i} addresses
+     */
+    private static void assertAddresses(List<Person> persons, int firstIndex) {
+        for (int i = 0; i < persons.size(); i++) {
+            Person person = persons.get(i);
+            assertEquals(NAME + (firstIndex + i), person.getName());
+            assertTrue(Hibernate.isInitialized(person.getAddresses()));
+            assertEquals(firstIndex + i, person.getAddresses().size());
+        }
+    }
+}
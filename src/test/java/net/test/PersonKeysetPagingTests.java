@@ -0,0 +1,110 @@
+package net.test;
+
+import com.querydsl.core.types.OrderSpecifier;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.paging.Keyset;
+import net.test.paging.KeysetPage;
+import net.test.paging.KeysetPageRequest;
+import net.test.repository.PersonRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static net.test.predicate.PersonPredicates.nameLike;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PersonKeysetPagingTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAll();
+
+        // duplicate names so the id tie breaker is exercised
+        for (int i = 0; i < 10; i++) {
+            Person person = new Person();
+            person.setName(NAME + (i % 3));
+            person.setSurname(SURNAME + i);
+            personRepository.save(person);
+        }
+    }
+
+    @Test
+    public void testFirstPage() {
+        KeysetPage<Person> page = personRepository.findAll(nameLike(NAME), new KeysetPageRequest(4, QPerson.person
+                .name.asc()));
+
+        assertEquals(4, page.getNumberOfElements());
+        assertTrue(page.hasNext());
+        assertNull(page.getTotalElements());
+    }
+
+    @Test
+    public void testWalkAllPages() {
+        List<Person> expected = new ArrayList<>();
+        for (Person person : personRepository.findAll(nameLike(NAME), QPerson.person.name.desc(), QPerson.person.id
+                .asc())) {
+            expected.add(person);
+        }
+
+        KeysetPageRequest pageRequest = new KeysetPageRequest(3, QPerson.person.name.desc()).withCount();
+        List<Person> walked = new ArrayList<>();
+
+        KeysetPage<Person> page;
+        do {
+            page = personRepository.findAll(nameLike(NAME), pageRequest);
+            assertEquals(Long.valueOf(10), page.getTotalElements());
+            walked.addAll(page.getContent());
+            pageRequest = pageRequest.next(page);
+        } while (page.hasNext());
+
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    public void testLastPage() {
+        KeysetPage<Person> page = personRepository.findAll(null, new KeysetPageRequest(10));
+
+        assertEquals(10, page.getNumberOfElements());
+        assertFalse(page.hasNext());
+    }
+
+    @Test(expected = InvalidDataAccessApiUsageException.class)
+    public void testCursorNotMatchingOrder() {
+        KeysetPage<Person> page = personRepository.findAll(null, new KeysetPageRequest(4, QPerson.person.name.asc()));
+
+        personRepository.findAll(null, new KeysetPageRequest(4, QPerson.person.name.asc(), QPerson.person.surname
+                .asc()).next(page));
+    }
+
+    @Test(expected = InvalidDataAccessApiUsageException.class)
+    public void testCursorWithMalformedValue() {
+        // right number of values, but the id is not a number
+        String cursor = Keyset.encode(new Object[]{NAME, "not-an-id"});
+
+        personRepository.findAll(null, new KeysetPageRequest(4, cursor, Collections.<OrderSpecifier<?>>singletonList
+                (QPerson.person.name.asc()), false));
+    }
+}
@@ -0,0 +1,121 @@
+package net.test;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.repository.PersonRepository;
+import net.test.search.NameGramTrigger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static net.test.predicate.PersonPredicates.nameContains;
+import static net.test.predicate.PersonPredicates.nameStartsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PersonNameSearchTests {
+
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAll();
+
+        for (String name : new String[]{"ABCAB", "XABCABC", "ABC%", "ZZABCZZ", "AB"}) {
+            Person person = new Person();
+            person.setName(name);
+            person.setSurname(SURNAME);
+            personRepository.save(person);
+        }
+    }
+
+    @Test
+    public void testNameStartsWith() {
+        assertEquals(Collections.singletonList("ABC%"), names(nameStartsWith("ABC%")));
+        assertEquals(3, names(nameStartsWith("AB")).size());
+    }
+
+    @Test
+    public void testNameContains() {
+        // ABCAB has all trigrams of ABCABC, but does not contain it
+        assertEquals(Collections.singletonList("XABCABC"), names(nameContains("ABCABC")));
+        assertEquals(4, names(nameContains("ABC")).size());
+        assertEquals(Collections.singletonList("ABC%"), names(nameContains("C%")));
+    }
+
+    @Test
+    public void testNameGramsFollowName() {
+        Person person = personRepository.findOne(QPerson.person.name.eq("ZZABCZZ"));
+        person.setName("QQQ");
+        personRepository.save(person);
+
+        assertEquals(Collections.singletonList("QQQ"), names(nameContains("QQQ")));
+        assertEquals(3, names(nameContains("ABC")).size());
+        assertEquals(1, countGrams(person.getId()));
+    }
+
+    @Test
+    public void testUpdateAllRebuildsNameGrams() {
+        personRepository.updateAll(QPerson.person.name.eq("AB"), Collections.<Path<?>, Object>singletonMap(QPerson
+                .person.name, "ABCDE"));
+
+        assertEquals(Collections.singletonList("ABCDE"), names(nameContains("CDE")));
+        assertEquals(3, countGrams(personRepository.findOne(QPerson.person.name.eq("ABCDE")).getId()));
+        assertEquals(5, names(nameContains("ABC")).size());
+    }
+
+    @Test
+    public void testDeleteAllDeletesNameGrams() {
+        Person deleted = personRepository.findOne(QPerson.person.name.eq("ABCAB"));
+        personRepository.deleteAll(QPerson.person.name.startsWith("ABC"));
+
+        assertEquals(0, countGrams(deleted.getId()));
+        assertEquals(Arrays.asList("XABCABC", "ZZABCZZ"), names(nameContains("ABC")));
+    }
+
+    @Test
+    public void testTriggerRequired() {
+        NameGramTrigger.requireInstalled(jdbcTemplate.getDataSource(), "PERSON", NameGramTrigger.class);
+        try {
+            NameGramTrigger.requireInstalled(jdbcTemplate.getDataSource(), "ADDRESS", NameGramTrigger.class);
+            fail("Trigger not created on ADDRESS");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private List<String> names(Predicate predicate) {
+        List<String> names = new ArrayList<>();
+        for (Person person : personRepository.findAll(predicate, QPerson.person.name.asc())) {
+            names.add(person.getName());
+        }
+        return names;
+    }
+
+    private int countGrams(Long personId) {
+        return jdbcTemplate.queryForObject("select count(*) from PERSON_NAME_GRAM where PERSON_ID = ?", Integer.class,
+                personId);
+    }
+}
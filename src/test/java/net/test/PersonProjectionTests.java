@@ -0,0 +1,100 @@
+package net.test;
+
+import net.test.dto.PersonDTO;
+import net.test.dto.PersonDTOProjection;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.query.PersistenceContexts;
+import net.test.repository.PersonRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PersonProjectionTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private List<PersonDTO> expected;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAll();
+
+        expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Person person = new Person();
+            person.setName(NAME + i);
+            person.setSurname(SURNAME);
+            personRepository.save(person);
+
+            expected.add(new PersonDTO(person.getId(), person.getName(), person.getSurname()));
+        }
+    }
+
+    @Test
+    public void testFindAllAsDto() {
+        List<PersonDTO> dtos = personRepository.findAllAsDto(QPerson.person.surname.eq(SURNAME), QPerson.person
+                .name.asc());
+
+        assertEquals(expected, dtos);
+    }
+
+    @Test
+    @javax.transaction.Transactional
+    public void testFindAllAsDtoDoesNotManageEntities() {
+        // persons saved in setUp() run in this transaction too
+        entityManager.clear();
+
+        List<PersonDTO> dtos = personRepository.findAllAsDto(null);
+
+        assertEquals(3, dtos.size());
+        assertTrue(PersistenceContexts.managedEntities(entityManager, Person.class).isEmpty());
+    }
+
+    @Test
+    public void testStreamAsDto() {
+        List<PersonDTO> dtos = new ArrayList<>();
+        try (CloseableIterator<PersonDTO> iterator = personRepository.streamAsDto(QPerson.person.name.ne(NAME + 1))) {
+            while (iterator.hasNext()) {
+                dtos.add(iterator.next());
+            }
+        }
+
+        assertEquals(2, dtos.size());
+        assertTrue(dtos.contains(expected.get(0)));
+        assertTrue(dtos.contains(expected.get(2)));
+    }
+
+    @Test
+    public void testProjectionMatchesGeneratedSignature() {
+        PersonDTO dto = PersonDTOProjection.PERSON_DTO.newInstance(1L, NAME, SURNAME);
+
+        assertEquals(new PersonDTO(1L, NAME, SURNAME), dto);
+        assertEquals(PersonDTO.class, PersonDTOProjection.PERSON_DTO.getType());
+        assertEquals(3, PersonDTOProjection.PERSON_DTO.getArgs().size());
+    }
+}
@@ -0,0 +1,189 @@
+package net.test;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.types.Path;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.RelationalPathBase;
+import net.test.dto.PersonDTO;
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.predicate.PersonSqlPredicates;
+import net.test.query.PersistenceContexts;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import net.test.sql.PersonSqlRepository;
+import net.test.sql.SAddress;
+import net.test.sql.SPerson;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static net.test.predicate.PersonPredicates.nameStartsWith;
+import static net.test.predicate.PersonSqlPredicates.nameEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PersonSqlTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private PersonSqlRepository personSqlRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        // persons with 0, 1 and 2 addresses, all in the same street
+        for (int i = 0; i < 3; i++) {
+            Person person = save(NAME + i);
+            for (int j = 0; j < i; j++) {
+                Address address = new Address();
+                address.setStreet(STREET);
+                address.setPerson(person);
+                addressRepository.save(address);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testSameResultAsJpa() {
+        List<PersonDTO> dtos = personSqlRepository.findAll(PersonSqlPredicates.nameStartsWith(NAME),
+                SPerson.person.name.asc());
+
+        assertEquals(3, dtos.size());
+        assertEquals(personRepository.findAllAsDto(nameStartsWith(NAME), QPerson.person.name.asc()), dtos);
+        assertEquals(3, personSqlRepository.count(null));
+        assertEquals(dtos.get(1), personSqlRepository.findOne(dtos.get(1).getId()));
+        assertNull(personSqlRepository.findOne(nameEquals("MISSING")));
+    }
+
+    @Test(expected = NonUniqueResultException.class)
+    public void testFindOneNotUnique() {
+        personSqlRepository.findOne(SPerson.person.surname.eq(SURNAME));
+    }
+
+    @Test
+    public void testFindAllByStreet() {
+        List<PersonDTO> dtos = personSqlRepository.findAllByStreet(STREET, SPerson.person.name.asc());
+
+        assertEquals(2, dtos.size());
+        assertEquals(NAME + 1, dtos.get(0).getName());
+        assertEquals(NAME + 2, dtos.get(1).getName());
+    }
+
+    @Test
+    public void testSharesJpaTransaction() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Person person = save(NAME + 3);
+            entityManager.flush();
+
+            // flushed, not committed
+            assertEquals(person.getId(), personSqlRepository.findOne(nameEquals(NAME + 3)).getId());
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertNull(personSqlRepository.findOne(nameEquals(NAME + 3)));
+    }
+
+    @Test
+    public void testNoEntitiesLoaded() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            StatementCapture.start();
+            assertNotNull(personSqlRepository.findOne(nameEquals(NAME + 1)));
+
+            // not prepared by Hibernate
+            assertTrue(StatementCapture.stop().isEmpty());
+            assertTrue(PersistenceContexts.managedEntities(entityManager, Person.class).isEmpty());
+            return null;
+        });
+    }
+
+    @Test
+    public void testMetamodelMatchesSchema() throws Exception {
+        assertColumns(SPerson.person);
+        assertColumns(SAddress.address);
+    }
+
+    /**
+     * Columns of the table created by Hibernate by name, with their JDBC type and nullability.
+     */
+    private void assertColumns(RelationalPathBase<?> table) throws Exception {
+        Map<String, String> expected = new TreeMap<>();
+        new JdbcTemplate(dataSource).execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(null, table.getSchemaName(), table.getTableName(), null)) {
+                while (columns.next()) {
+                    expected.put(columns.getString("COLUMN_NAME"), columns.getInt("DATA_TYPE") + (columns.getInt
+                            ("NULLABLE") == DatabaseMetaData.columnNoNulls ? " not null" : ""));
+                }
+            }
+            return null;
+        });
+
+        Map<String, String> actual = new TreeMap<>();
+        for (Path<?> column : table.getColumns()) {
+            ColumnMetadata metadata = table.getMetadata(column);
+            actual.put(metadata.getName(), metadata.getJdbcType() + (metadata.isNullable() ? "" : " not null"));
+        }
+
+        assertEquals(table.getTableName(), expected, actual);
+    }
+
+    private Person save(String name) {
+        Person person = new Person();
+        person.setName(name);
+        person.setSurname(SURNAME);
+        return personRepository.save(person);
+    }
+}
@@ -0,0 +1,84 @@
+package net.test;
+
+import net.test.entity.Person;
+import net.test.repository.PersonRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Streams one million persons under the heap cap configured for the failsafe plugin in {@code pom.xml}.
+ * <p>
+ * Uses a file based H2 database, an in-memory one would keep all the rows on the capped heap itself. H2 spills large
+ * result sets to disk as well (MAX_MEMORY_ROWS).
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:./target/h2/streaming")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PersonStreamingIT {
+
+    public static final int ROWS = 1000000;
+    public static final int BATCH_SIZE = 10000;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAllInBatch();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int chunk = 0; chunk < ROWS; chunk += BATCH_SIZE) {
+            final int offset = chunk;
+            jdbcTemplate.batchUpdate("insert into PERSON (id, name, surname) values (?, ?, ?)", new
+                    BatchPreparedStatementSetter() {
+
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, offset + i + 1);
+                    ps.setString(2, "NAME" + (offset + i));
+                    ps.setString(3, "SURNAME" + (offset + i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return BATCH_SIZE;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testStreamMillionRows() {
+        long count = 0;
+        try (CloseableIterator<Person> persons = personRepository.stream(null)) {
+            while (persons.hasNext()) {
+                persons.next();
+                count++;
+            }
+        }
+
+        assertEquals(ROWS, count);
+    }
+}
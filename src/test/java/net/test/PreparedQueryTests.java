@@ -0,0 +1,157 @@
+package net.test;
+
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.types.ParamNotSetException;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPAExpressions;
+import net.test.dto.PersonDTO;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.query.PreparedQuery;
+import net.test.repository.PersonRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static net.test.predicate.PersonPredicates.nameEquals;
+import static net.test.query.PersonPreparedQueries.BY_NAME;
+import static net.test.query.PersonPreparedQueries.BY_NAME_AND_SURNAME;
+import static net.test.query.PersonPreparedQueries.DTO_BY_NAME;
+import static net.test.query.PersonPreparedQueries.NAME;
+import static net.test.query.PersonPreparedQueries.SURNAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PreparedQueryTests {
+
+    public static final String NAME_VALUE = "NAME";
+    public static final String SURNAME_VALUE = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAllInBatch();
+
+        for (int i = 0; i < 4; i++) {
+            save(NAME_VALUE + i, SURNAME_VALUE + i);
+        }
+        save(NAME_VALUE + 0, SURNAME_VALUE);
+    }
+
+    @After
+    public void tearDown() {
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testSameResultAsRebuiltQuery() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(personRepository.findAll(nameEquals(NAME_VALUE + i)), personRepository.fetch(BY_NAME.bind
+                    (NAME, NAME_VALUE + i)));
+        }
+    }
+
+    @Test
+    public void testCompiledOnce() {
+        StatementCapture.start();
+        personRepository.fetch(BY_NAME.bind(NAME, NAME_VALUE + 1));
+        String jpql = BY_NAME.getJpql();
+        personRepository.fetch(BY_NAME.bind(NAME, NAME_VALUE + 2));
+
+        List<String> statements = StatementCapture.stop();
+        assertSame(jpql, BY_NAME.getJpql());
+        assertEquals(2, statements.size());
+        // the same string for the statement cache
+        assertEquals(statements.get(0), statements.get(1));
+    }
+
+    @Test
+    public void testFetchOne() {
+        Person person = personRepository.fetchOne(BY_NAME_AND_SURNAME.bind(NAME, NAME_VALUE + 0).bind(SURNAME,
+                SURNAME_VALUE));
+
+        assertEquals(SURNAME_VALUE, person.getSurname());
+        assertNull(personRepository.fetchOne(BY_NAME.bind(NAME, "MISSING")));
+    }
+
+    @Test(expected = NonUniqueResultException.class)
+    public void testFetchOneNotUnique() {
+        personRepository.fetchOne(BY_NAME.bind(NAME, NAME_VALUE + 0));
+    }
+
+    @Test
+    public void testDtoProjection() {
+        List<PersonDTO> dtos = personRepository.fetch(DTO_BY_NAME.bind(NAME, NAME_VALUE + 1));
+
+        assertEquals(personRepository.findAllAsDto(nameEquals(NAME_VALUE + 1)), dtos);
+    }
+
+    @Test(expected = ParamNotSetException.class)
+    public void testParamNotSet() {
+        personRepository.fetch(BY_NAME_AND_SURNAME.bind(NAME, NAME_VALUE + 0));
+    }
+
+    @Test(expected = InvalidDataAccessApiUsageException.class)
+    public void testParamNotInQuery() {
+        personRepository.fetch(BY_NAME.bind(NAME, NAME_VALUE + 0).bind(new Param<>(String.class, "other"), ""));
+    }
+
+    @Test
+    public void testConcurrentExecutions() throws Exception {
+        Param<String> name = new Param<>(String.class, "name");
+        // not compiled yet, the first executions race to compile it
+        PreparedQuery<Person> byName = PreparedQuery.of(JPAExpressions.selectFrom(QPerson.person).where(QPerson
+                .person.surname.eq(name)));
+
+        int threads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Person>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String surname = SURNAME_VALUE + i % 4;
+                results.add(executorService.submit(() -> {
+                    start.await();
+                    return personRepository.fetch(byName.bind(name, surname));
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < threads; i++) {
+                List<Person> persons = results.get(i).get(10, TimeUnit.SECONDS);
+                assertEquals(1, persons.size());
+                assertEquals(NAME_VALUE + i % 4, persons.get(0).getName());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void save(String name, String surname) {
+        Person person = new Person();
+        person.setName(name);
+        person.setSurname(surname);
+        personRepository.save(person);
+    }
+}
@@ -0,0 +1,126 @@
+package net.test;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.metrics.QueryMetricsEndpoint;
+import net.test.metrics.QueryMetricsRegistry;
+import net.test.metrics.QueryShapeMetrics;
+import net.test.repository.PersonRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static net.test.predicate.PersonPredicates.nameEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class QueryMetricsTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private JPAQueryFactory jpaQueryFactory;
+
+    @Autowired
+    private QueryMetricsRegistry queryMetricsRegistry;
+
+    @Autowired
+    private QueryMetricsEndpoint queryMetricsEndpoint;
+
+    @Before
+    public void setUp() {
+        personRepository.deleteAll();
+
+        for (int i = 0; i < 3; i++) {
+            Person person = new Person();
+            person.setName(NAME + i);
+            person.setSurname(SURNAME);
+            personRepository.save(person);
+        }
+
+        queryMetricsRegistry.clear();
+    }
+
+    @Test
+    public void testPredicateExecutorRecordedByShape() {
+        personRepository.findAll(nameEquals(NAME + 0));
+        personRepository.findAll(nameEquals(NAME + 1));
+        personRepository.findAll(QPerson.person.surname.eq(SURNAME));
+
+        QueryShapeMetrics byName = queryMetricsRegistry.get("personRepository.findAll(EQ(person.name,?))");
+        assertNotNull(byName);
+        assertEquals(2, byName.getCount());
+        assertEquals(2, byName.getRows());
+        assertEquals(2, byName.getStatements());
+        assertEquals(2, byName.getEntities());
+        assertEquals(2, byName.getLatency().getTotalCount());
+
+        QueryShapeMetrics bySurname = queryMetricsRegistry.get("personRepository.findAll(EQ(person.surname,?))");
+        assertEquals(1, bySurname.getCount());
+        assertEquals(3, bySurname.getRows());
+        assertEquals(3, bySurname.getEntities());
+    }
+
+    @Test
+    public void testMethodsWithoutPredicateNotRecorded() {
+        personRepository.findAll();
+        personRepository.count();
+
+        assertEquals(0, queryMetricsRegistry.getSize());
+    }
+
+    @Test
+    public void testJPAQueryFactoryRecordedByJpql() {
+        jpaQueryFactory.selectFrom(QPerson.person).where(QPerson.person.name.eq(NAME + 0)).fetch();
+        jpaQueryFactory.selectFrom(QPerson.person).where(QPerson.person.name.eq(NAME + 1)).fetchOne();
+        jpaQueryFactory.selectFrom(QPerson.person).where(QPerson.person.name.eq(NAME + 2)).fetchCount();
+
+        assertEquals(2, queryMetricsRegistry.getSize());
+
+        QueryShapeMetrics select = queryMetricsRegistry.get("select person from Person person where person.name = ?1");
+        assertNotNull(select);
+        assertEquals(2, select.getCount());
+        assertEquals(2, select.getRows());
+        assertEquals(2, select.getStatements());
+    }
+
+    @Test
+    public void testShapesBounded() {
+        QueryMetricsRegistry registry = new QueryMetricsRegistry(2);
+        for (int i = 0; i < 5; i++) {
+            registry.record("shape" + i, 1000, 1, 1, 1);
+        }
+
+        assertEquals(3, registry.getSize());
+        assertEquals(3, registry.get(QueryMetricsRegistry.OTHER_SHAPES).getCount());
+    }
+
+    @Test
+    public void testEndpointDump() {
+        personRepository.findAll(nameEquals(NAME + 0));
+
+        List<Map<String, Object>> dump = queryMetricsEndpoint.invoke();
+
+        assertEquals(1, dump.size());
+        assertEquals("personRepository.findAll(EQ(person.name,?))", dump.get(0).get("shape"));
+        assertEquals(1L, dump.get(0).get("count"));
+        assertTrue(((Map<?, ?>) dump.get(0).get("latency")).containsKey("p99"));
+    }
+}
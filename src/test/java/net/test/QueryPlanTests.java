@@ -0,0 +1,262 @@
+package net.test;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QAddress;
+import net.test.entity.QPerson;
+import net.test.paging.KeysetPageRequest;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static net.test.predicate.PersonPredicates.nameContains;
+import static net.test.predicate.PersonPredicates.nameEquals;
+import static net.test.predicate.PersonPredicates.nameLike;
+import static net.test.predicate.PersonPredicates.nameStartsWith;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs a catalog of named queries and compares their SQL and H2 {@code EXPLAIN} plans with the baselines in
+ * {@code src/test/resources/query-plans}. Fails on more statements, more full table scans or more tables accessed
+ * (joins, subqueries) than in the baseline. Other differences, like renamed aliases, pass.
+ * <p>
+ * The plans of the last run are written to {@code target/query-plans}. After reviewing a change run with
+ * {@code -Dquery-plans.update=true} to replace the baselines.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class QueryPlanTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+    public static final String STREET = "STREET";
+
+    public static final Path BASELINES = Paths.get("src", "test", "resources", "query-plans");
+    public static final Path ACTUAL = Paths.get("target", "query-plans");
+
+    // subqueries in index conditions are nested in comments with /++ ++/
+    private static final Pattern TABLE_ACCESS = Pattern.compile("\\b(?:FROM|JOIN|UPDATE) (PUBLIC\\.[A-Z0-9_]+)");
+    private static final Pattern TABLE_SCAN = Pattern.compile("(?:/\\*|/\\+\\+) (PUBLIC\\.[A-Z0-9_]+)\\.tableScan");
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private JPAQueryFactory jpaQueryFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Person person;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        for (int i = 0; i < 10; i++) {
+            Person saved = new Person();
+            saved.setName(NAME + i);
+            saved.setSurname(SURNAME);
+            personRepository.save(saved);
+
+            Address address = new Address();
+            address.setStreet(STREET + i);
+            address.setPerson(saved);
+            addressRepository.save(address);
+
+            person = saved;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    /**
+     * @return queries by name, the name is the baseline file
+     */
+    private Map<String, Runnable> catalog() {
+        QPerson qPerson = QPerson.person;
+        QAddress qAddress = QAddress.address;
+
+        Map<String, Runnable> catalog = new LinkedHashMap<>();
+        catalog.put("person-name-equals", () -> personRepository.findAll(nameEquals(NAME + 1)));
+        catalog.put("person-name-like", () -> personRepository.findAll(nameLike(NAME)));
+        catalog.put("person-name-starts-with", () -> personRepository.findAll(nameStartsWith(NAME)));
+        catalog.put("person-name-contains", () -> personRepository.findAll(nameContains("AME1")));
+        catalog.put("person-page", () -> personRepository.findAll(qPerson.surname.eq(SURNAME), new PageRequest(0, 2,
+                new Sort(Sort.Direction.ASC, "name"))));
+        catalog.put("person-keyset-page", () -> personRepository.findAll(qPerson.surname.eq(SURNAME), new
+                KeysetPageRequest(2, qPerson.name.asc())));
+        catalog.put("person-dto", () -> personRepository.findAllAsDto(nameStartsWith(NAME), qPerson.name.asc()));
+        catalog.put("person-with-addresses", () -> new TransactionTemplate(transactionManager).execute(status ->
+                personRepository.withAddresses(personRepository.findAll(nameStartsWith(NAME)))));
+        catalog.put("person-by-street", () -> jpaQueryFactory.selectFrom(qPerson).innerJoin(qPerson.addresses,
+                qAddress).where(qAddress.street.eq(STREET + 1)).fetch());
+        catalog.put("address-by-person", () -> jpaQueryFactory.selectFrom(qAddress).where(qAddress.person.id.eq(person
+                .getId())).fetch());
+        catalog.put("person-update", () -> personRepository.updateAll(nameEquals(NAME + 1), Collections.<com
+                .querydsl.core.types.Path<?>, Object>singletonMap(qPerson.surname, SURNAME)));
+        return catalog;
+    }
+
+    @Test
+    public void testQueryPlans() throws IOException {
+        boolean update = Boolean.getBoolean("query-plans.update");
+        List<String> regressions = new ArrayList<>();
+
+        for (Map.Entry<String, Runnable> query : catalog().entrySet()) {
+            StatementCapture.start();
+            try {
+                query.getValue().run();
+            } finally {
+                // leaves the capture of this thread clean for the next query
+                List<String> statements = StatementCapture.stop();
+                String actual = format(statements);
+
+                write(ACTUAL.resolve(query.getKey() + ".txt"), actual);
+                Path baseline = BASELINES.resolve(query.getKey() + ".txt");
+                if (update) {
+                    write(baseline, actual);
+                } else if (!Files.exists(baseline)) {
+                    regressions.add(query.getKey() + ": no baseline, review " + ACTUAL.resolve(query.getKey() +
+                            ".txt") + " and run with -Dquery-plans.update=true");
+                } else {
+                    compare(query.getKey(), new String(Files.readAllBytes(baseline), StandardCharsets.UTF_8),
+                            actual, regressions);
+                }
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            fail("Query plan regressions, see " + ACTUAL + ":\n" + String.join("\n", regressions));
+        }
+    }
+
+    /**
+     * @return SQL and plan of each statement, one {@code sql:} and one {@code plan:} line
+     */
+    private String format(List<String> statements) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        StringBuilder result = new StringBuilder();
+
+        for (String sql : statements) {
+            // without values like H2 plans prepared statements, bound values would be inlined in the plan
+            String plan = jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            });
+            result.append("sql: ").append(oneLine(sql)).append('\n');
+            result.append("plan: ").append(oneLine(plan)).append('\n');
+        }
+        return result.toString();
+    }
+
+    private static void compare(String name, String baseline, String actual, List<String> regressions) {
+        List<String> expectedPlans = plans(baseline);
+        List<String> actualPlans = plans(actual);
+
+        if (actualPlans.size() > expectedPlans.size()) {
+            regressions.add(name + ": " + actualPlans.size() + " statements instead of " + expectedPlans.size());
+        }
+
+        for (int i = 0; i < Math.min(expectedPlans.size(), actualPlans.size()); i++) {
+            String statement = name + " statement " + (i + 1);
+
+            Map<String, Integer> expectedScans = count(TABLE_SCAN, expectedPlans.get(i));
+            for (Map.Entry<String, Integer> scans : count(TABLE_SCAN, actualPlans.get(i)).entrySet()) {
+                int expected = expectedScans.getOrDefault(scans.getKey(), 0);
+                if (scans.getValue() > expected) {
+                    regressions.add(statement + ": " + scans.getValue() + " full scans of " + scans.getKey() +
+                            " instead of " + expected);
+                }
+            }
+
+            int expectedTables = total(count(TABLE_ACCESS, expectedPlans.get(i)));
+            int actualTables = total(count(TABLE_ACCESS, actualPlans.get(i)));
+            if (actualTables > expectedTables) {
+                regressions.add(statement + ": " + actualTables + " tables accessed (joins, subqueries) instead of " +
+                        expectedTables);
+            }
+        }
+    }
+
+    private static List<String> plans(String formatted) {
+        List<String> plans = new ArrayList<>();
+        for (String line : formatted.split("\n")) {
+            if (line.startsWith("plan: ")) {
+                plans.add(line);
+            }
+        }
+        return plans;
+    }
+
+    private static Map<String, Integer> count(Pattern pattern, String plan) {
+        Map<String, Integer> counts = new TreeMap<>();
+        Matcher matcher = pattern.matcher(plan);
+        while (matcher.find()) {
+            counts.merge(matcher.group(1), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static int total(Map<String, Integer> counts) {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static String oneLine(String text) {
+        return text.trim().replaceAll("\\s+", " ");
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,228 @@
+package net.test;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Path;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import net.test.changes.ChangeFeed;
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QChangeEvent;
+import net.test.entity.QPerson;
+import net.test.reporting.Rollup;
+import net.test.reporting.RollupService;
+import net.test.reporting.RollupSnapshot;
+import net.test.reporting.Rollups;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "app.reporting.refresh-interval=0")
+public class RollupTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JPAQueryFactory jpaQueryFactory;
+
+    private Person first;
+    private Person second;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        first = save(NAME + 1);
+        second = save(NAME + 1);
+        save(NAME + 2);
+        saveAddress(first);
+        saveAddress(first);
+        saveAddress(second);
+
+        rollupService.rebuild(Rollups.PERSONS_BY_NAME);
+        rollupService.rebuild(Rollups.ADDRESSES_BY_PERSON);
+    }
+
+    @Test
+    public void testRebuild() {
+        RollupSnapshot<String> persons = rollupService.read(Rollups.PERSONS_BY_NAME);
+        RollupSnapshot<Long> addresses = rollupService.read(Rollups.ADDRESSES_BY_PERSON);
+
+        assertEquals(2, persons.get(NAME + 1));
+        assertEquals(live(Rollups.PERSONS_BY_NAME), persons.getValues());
+        assertEquals(2, addresses.get(first.getId()));
+        assertEquals(live(Rollups.ADDRESSES_BY_PERSON), addresses.getValues());
+        assertTrue(persons.isCurrent());
+    }
+
+    @Test
+    public void testIncrementalRefresh() {
+        second.setName(NAME + 3);
+        personRepository.save(second);
+        save(NAME + 2);
+        personRepository.updateAll(QPerson.person.name.eq(NAME + 1), Collections.<Path<?>, Object>singletonMap
+                (QPerson.person.name, NAME + 4));
+        Address moved = saveAddress(first);
+        moved.setPerson(second);
+        addressRepository.save(moved);
+
+        rollupService.refresh(Rollups.PERSONS_BY_NAME);
+        rollupService.refresh(Rollups.ADDRESSES_BY_PERSON);
+
+        RollupSnapshot<String> persons = rollupService.read(Rollups.PERSONS_BY_NAME);
+        assertEquals(0, persons.get(NAME + 1));
+        assertEquals(2, persons.get(NAME + 2));
+        assertEquals(live(Rollups.PERSONS_BY_NAME), persons.getValues());
+        assertEquals(live(Rollups.ADDRESSES_BY_PERSON), rollupService.read(Rollups.ADDRESSES_BY_PERSON).getValues());
+    }
+
+    @Test
+    public void testDeletesRecomputeOldGroups() {
+        personRepository.deleteAll(QPerson.person.id.eq(first.getId()));
+
+        rollupService.refresh(Rollups.PERSONS_BY_NAME);
+        rollupService.refresh(Rollups.ADDRESSES_BY_PERSON);
+
+        assertEquals(1, rollupService.read(Rollups.PERSONS_BY_NAME).get(NAME + 1));
+        RollupSnapshot<Long> addresses = rollupService.read(Rollups.ADDRESSES_BY_PERSON);
+        assertFalse(addresses.getValues().containsKey(first.getId()));
+        assertEquals(live(Rollups.ADDRESSES_BY_PERSON), addresses.getValues());
+    }
+
+    @Test
+    public void testStalenessReported() {
+        save(NAME + 2);
+        save(NAME + 2);
+
+        RollupSnapshot<String> stale = rollupService.read(Rollups.PERSONS_BY_NAME);
+        assertEquals(1, stale.get(NAME + 2));
+        assertEquals(2, stale.getPendingChanges());
+        // changes of other tables are not pending
+        assertTrue(rollupService.read(Rollups.ADDRESSES_BY_PERSON).isCurrent());
+
+        rollupService.refresh(Rollups.PERSONS_BY_NAME);
+
+        RollupSnapshot<String> current = rollupService.read(Rollups.PERSONS_BY_NAME);
+        assertEquals(3, current.get(NAME + 2));
+        assertTrue(current.isCurrent());
+        assertTrue(current.getRefreshedAt().getTime() >= stale.getRefreshedAt().getTime());
+    }
+
+    @Test
+    public void testRefreshedOnReadWhenStale() {
+        RollupService alwaysCurrent = new RollupService(entityManagerFactory, changeFeed, Collections.<Rollup<?>>
+                emptyList(), 0, 0, 50);
+        save(NAME + 2);
+
+        RollupSnapshot<String> persons = alwaysCurrent.read(Rollups.PERSONS_BY_NAME, Arrays.asList(NAME + 1, NAME +
+                2, NAME + 5));
+
+        assertEquals(2, persons.getValues().size());
+        assertEquals(2, persons.get(NAME + 2));
+        assertTrue(persons.isCurrent());
+    }
+
+    @Test(timeout = 60000)
+    public void testRefreshOfManyChanges() {
+        // more groups than the batch size and more events than one feed batch
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            Person person = new Person();
+            person.setName(NAME + "_" + i);
+            person.setSurname(SURNAME);
+            persons.add(person);
+        }
+        personRepository.save(persons);
+
+        rollupService.refresh(Rollups.PERSONS_BY_NAME);
+
+        RollupSnapshot<String> current = rollupService.read(Rollups.PERSONS_BY_NAME);
+        assertTrue(current.isCurrent());
+        assertEquals(1, current.get(NAME + "_" + 1099));
+        assertEquals(live(Rollups.PERSONS_BY_NAME), current.getValues());
+    }
+
+    @Test
+    public void testChangeFeedPurgedUpToOldestRollup() {
+        QChangeEvent changeEvent = QChangeEvent.changeEvent;
+        save(NAME + 2);
+        rollupService.refresh(Rollups.PERSONS_BY_NAME);
+        saveAddress(second);
+
+        // addresses were not refreshed past the new address, persons past the new person only
+        rollupService.purgeChangeFeed();
+        assertEquals(1, jpaQueryFactory.selectFrom(changeEvent).where(changeEvent.tableName.eq("ADDRESS"))
+                .fetchCount());
+
+        rollupService.refresh(Rollups.ADDRESSES_BY_PERSON);
+        rollupService.purgeChangeFeed();
+
+        // the last positioned event is kept, positions continue after it
+        assertEquals(1, jpaQueryFactory.selectFrom(changeEvent).fetchCount());
+        assertEquals(live(Rollups.ADDRESSES_BY_PERSON), rollupService.read(Rollups.ADDRESSES_BY_PERSON).getValues());
+    }
+
+    private <K> Map<K, Long> live(Rollup<K> rollup) {
+        Map<K, Long> values = new HashMap<>();
+        for (Tuple group : jpaQueryFactory.select(rollup.getKey(), rollup.getAggregate()).from(rollup.getRoot())
+                .where(rollup.getKey().isNotNull()).groupBy(rollup.getKey()).fetch()) {
+            values.put(group.get(rollup.getKey()), group.get(rollup.getAggregate()));
+        }
+        return values;
+    }
+
+    private Person save(String name) {
+        Person person = new Person();
+        person.setName(name);
+        person.setSurname(SURNAME);
+        return personRepository.save(person);
+    }
+
+    private Address saveAddress(Person person) {
+        Address address = new Address();
+        address.setStreet(STREET);
+        address.setPerson(person);
+        return addressRepository.save(address);
+    }
+}
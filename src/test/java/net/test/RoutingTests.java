@@ -0,0 +1,185 @@
+package net.test;
+
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.repository.PersonRepository;
+import net.test.routing.ReadWriteRoutingDataSource;
+import org.apache.tomcat.jdbc.pool.PoolConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {"spring.datasource.url=" + RoutingTests.PRIMARY_URL, "app.routing.replica-urls=" +
+        RoutingTests.REPLICA_URL, "app.routing.lag-window=" + RoutingTests.LAG_WINDOW,
+        "spring.datasource.tomcat.max-active=" + RoutingTests.MAX_ACTIVE})
+public class RoutingTests {
+
+    public static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    public static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    public static final long LAG_WINDOW = 200;
+    public static final int MAX_ACTIVE = 7;
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Before
+    public void setUp() throws Exception {
+        personRepository.deleteAllInBatch();
+        save(NAME + 1);
+        replicate();
+        save(NAME + 2);
+        waitForLagWindow();
+    }
+
+    @Test
+    public void testReadOnlyReadsGoToReplica() {
+        assertEquals(Collections.singletonList(NAME + 1), names(personRepository.findAll(QPerson.person.surname.eq
+                (SURNAME))));
+        assertEquals(1, personRepository.count());
+        assertFalse(routing().isPinnedToPrimary());
+    }
+
+    @Test
+    public void testReadsPinnedToPrimaryAfterWrite() throws Exception {
+        save(NAME + 3);
+
+        assertTrue(routing().isPinnedToPrimary());
+        assertEquals(Arrays.asList(NAME + 1, NAME + 2, NAME + 3), names(personRepository.findAll(QPerson.person
+                .surname.eq(SURNAME), QPerson.person.name.asc())));
+
+        waitForLagWindow();
+
+        assertEquals(1, personRepository.count());
+    }
+
+    @Test
+    public void testBulkWritesGoToPrimary() throws Exception {
+        personRepository.updateAll(QPerson.person.surname.eq(SURNAME), Collections.singletonMap(QPerson.person.surname,
+                (Object) (SURNAME + 2)));
+
+        assertEquals(2, primary.queryForObject("select count(*) from PERSON where SURNAME = ?", Integer.class,
+                SURNAME + 2).intValue());
+        assertEquals(0, replica.queryForObject("select count(*) from PERSON where SURNAME = ?", Integer.class,
+                SURNAME + 2).intValue());
+
+        waitForLagWindow();
+        replicate();
+
+        assertEquals(2, personRepository.count(QPerson.person.surname.eq(SURNAME + 2)));
+    }
+
+    @Test
+    public void testPoolsConfiguredLikeBoot() {
+        List<DataSource> pools = new ArrayList<>(routing().getReplicas());
+        pools.add(routing().getPrimary());
+
+        assertEquals(2, pools.size());
+        for (DataSource pool : pools) {
+            PoolConfiguration configuration = ((org.apache.tomcat.jdbc.pool.DataSource) pool).getPoolProperties();
+            assertEquals(MAX_ACTIVE, configuration.getMaxActive());
+            assertTrue(configuration.getJdbcInterceptors().contains("StatementCache"));
+        }
+        assertEquals(PRIMARY_URL, ((org.apache.tomcat.jdbc.pool.DataSource) routing().getPrimary()).getUrl());
+        assertEquals(REPLICA_URL, ((org.apache.tomcat.jdbc.pool.DataSource) routing().getReplicas().get(0)).getUrl());
+    }
+
+    @Test
+    public void testReplicasRoundRobin() throws Exception {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(database("rr-primary"), Arrays.asList
+                (database("rr-replica-0"), database("rr-replica-1")), 0);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            assertEquals("RR-REPLICA-0", catalog(routing));
+            assertEquals("RR-REPLICA-1", catalog(routing));
+            assertEquals("RR-REPLICA-0", catalog(routing));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        assertEquals("RR-PRIMARY", catalog(routing));
+    }
+
+    /**
+     * Copies the primary to the replica, H2 has no replication.
+     */
+    private void replicate() throws Exception {
+        File script = File.createTempFile("routing", ".sql");
+        try {
+            primary.execute("SCRIPT TO '" + script.getAbsolutePath() + "'");
+            replica.execute("DROP ALL OBJECTS");
+            replica.execute("RUNSCRIPT FROM '" + script.getAbsolutePath() + "'");
+        } finally {
+            script.delete();
+        }
+    }
+
+    private void waitForLagWindow() throws InterruptedException {
+        Thread.sleep(LAG_WINDOW + 50);
+    }
+
+    private ReadWriteRoutingDataSource routing() {
+        return (ReadWriteRoutingDataSource) ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static String catalog(DataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getCatalog();
+        }
+    }
+
+    private static List<String> names(Iterable<Person> persons) {
+        List<String> names = new ArrayList<>();
+        for (Person person : persons) {
+            names.add(person.getName());
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private Person save(String name) {
+        Person person = new Person();
+        person.setName(name);
+        person.setSurname(SURNAME);
+        return personRepository.save(person);
+    }
+}
@@ -0,0 +1,167 @@
+package net.test;
+
+import com.querydsl.core.types.Path;
+import net.test.cache.CacheMetrics;
+import net.test.entity.Person;
+import net.test.entity.QPerson;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {"spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class SecondLevelCacheTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    private Statistics statistics;
+
+    private Person person;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+
+        person = new Person();
+        person.setName(NAME);
+        person.setSurname(SURNAME);
+        personRepository.save(person);
+
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cacheMetrics.clear();
+    }
+
+    @After
+    public void tearDown() {
+        addressRepository.deleteAllInBatch();
+        personRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void testFindOneUsesEntityCache() {
+        personRepository.findOne(person.getId());
+        long statements = statistics.getPrepareStatementCount();
+
+        Person cached = personRepository.findOne(person.getId());
+
+        assertEquals(NAME, cached.getName());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(1, cacheMetrics.entity(Person.class).getHits());
+        assertEquals(0.5, cacheMetrics.entity(Person.class).getHitRatio(), 0.001);
+    }
+
+    @Test
+    public void testNamedQueryUsesQueryCache() {
+        findByName(NAME);
+        long statements = statistics.getPrepareStatementCount();
+
+        List<Person> persons = findByName(NAME);
+
+        assertEquals(1, persons.size());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(1, cacheMetrics.queries().getHits());
+        assertEquals(1, cacheMetrics.queries().getMisses());
+    }
+
+    @Test
+    public void testFindAllCachedKeyedByValues() {
+        personRepository.findAllCached(QPerson.person.name.eq(NAME));
+        personRepository.findAllCached(QPerson.person.name.eq(NAME + 1));
+        personRepository.findAllCached(QPerson.person.name.eq(NAME));
+
+        assertEquals(1, cacheMetrics.queries().getHits());
+        assertEquals(2, cacheMetrics.queries().getMisses());
+    }
+
+    @Test
+    public void testFindAllCachedInvalidatedBySave() {
+        assertEquals(1, personRepository.findAllCached(QPerson.person.name.eq(NAME)).size());
+
+        Person other = new Person();
+        other.setName(NAME);
+        other.setSurname(SURNAME);
+        personRepository.save(other);
+
+        assertEquals(2, personRepository.findAllCached(QPerson.person.name.eq(NAME)).size());
+    }
+
+    @Test
+    public void testInvalidatedByBulkUpdate() {
+        personRepository.findOne(person.getId());
+        assertEquals(1, personRepository.findAllCached(QPerson.person.name.eq(NAME)).size());
+
+        personRepository.updateAll(QPerson.person.id.eq(person.getId()), Collections.<Path<?>, Object>singletonMap
+                (QPerson.person.name, NAME + 1));
+
+        assertTrue(personRepository.findAllCached(QPerson.person.name.eq(NAME)).isEmpty());
+        assertEquals(NAME + 1, personRepository.findOne(person.getId()).getName());
+    }
+
+    @Test
+    public void testInvalidatedByBulkDelete() {
+        personRepository.findOne(person.getId());
+        assertEquals(1, personRepository.findAllCached(QPerson.person.name.eq(NAME)).size());
+
+        personRepository.deleteAll(QPerson.person.name.eq(NAME));
+
+        assertTrue(personRepository.findAllCached(QPerson.person.name.eq(NAME)).isEmpty());
+        assertEquals(null, personRepository.findOne(person.getId()));
+    }
+
+    @Test
+    public void testInvalidatedByDeleteAll() {
+        assertEquals(1, personRepository.findAllCached(QPerson.person.name.eq(NAME)).size());
+
+        personRepository.deleteAll();
+
+        assertTrue(personRepository.findAllCached(QPerson.person.name.eq(NAME)).isEmpty());
+    }
+
+    private List<Person> findByName(String name) {
+        return entityManager.createNamedQuery(Person.QUERY_FIND_BY_NAME, Person.class).setParameter("name", name)
+                .getResultList();
+    }
+}
@@ -0,0 +1,43 @@
+package net.test;
+
+import net.test.metrics.CountingInterceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL of the JDBC statements Hibernate prepares on the current thread between {@link #start()} and {@link #stop()}.
+ * Replaces {@link CountingInterceptor} in the tests, see {@code config/application.properties}, so the production
+ * interceptor does not record statements.
+ *
+ * @author Zbynek Vavros (zbynek.vavros@i.cz)
+ */
+public class StatementCapture extends CountingInterceptor {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    public static void start() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    /**
+     * @return statements prepared since {@link #start()}, in order
+     */
+    public static List<String> stop() {
+        List<String> statements = STATEMENTS.get();
+        if (statements == null) {
+            throw new IllegalStateException("Statement capture not started!");
+        }
+        STATEMENTS.remove();
+        return statements;
+    }
+
+    @Override
+    public String onPrepareStatement(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return super.onPrepareStatement(sql);
+    }
+}
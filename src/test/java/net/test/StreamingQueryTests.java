@@ -0,0 +1,103 @@
+package net.test;
+
+import net.test.entity.Address;
+import net.test.entity.Person;
+import net.test.entity.QAddress;
+import net.test.entity.QPerson;
+import net.test.repository.AddressRepository;
+import net.test.repository.PersonRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static net.test.predicate.PersonPredicates.nameLike;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@TestPropertySource(properties = {"app.stream.fetch-size=3", "app.stream.clear-interval=5"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StreamingQueryTests {
+
+    public static final String NAME = "NAME";
+    public static final String SURNAME = "SURNAME";
+
+    public static final String STREET = "STREET";
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Before
+    public void setUp() {
+        addressRepository.deleteAll();
+        personRepository.deleteAll();
+
+        for (int i = 0; i < 12; i++) {
+            Person person = new Person();
+            person.setName(NAME + i);
+            person.setSurname(SURNAME + i);
+            personRepository.save(person);
+
+            Address address = new Address();
+            address.setStreet(STREET + i);
+            address.setPerson(person);
+            addressRepository.save(address);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        // other test classes only delete persons
+        addressRepository.deleteAll();
+    }
+
+    @Test
+    public void testStreamPersons() {
+        int count = 0;
+        try (CloseableIterator<Person> persons = personRepository.stream(nameLike(NAME))) {
+            while (persons.hasNext()) {
+                Person person = persons.next();
+                assertTrue(person.getName().startsWith(NAME));
+                count++;
+            }
+        }
+
+        assertEquals(12, count);
+    }
+
+    @Test
+    public void testStreamAddressesWithPredicate() {
+        int count = 0;
+        try (CloseableIterator<Address> addresses = addressRepository.stream(QAddress.address.person.name.eq(NAME +
+                3))) {
+            while (addresses.hasNext()) {
+                assertEquals(STREET + 3, addresses.next().getStreet());
+                count++;
+            }
+        }
+
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void testCloseBeforeEnd() {
+        CloseableIterator<Person> persons = personRepository.stream(QPerson.person.isNotNull());
+        persons.next();
+        persons.close();
+
+        assertFalse(persons.hasNext());
+    }
+}